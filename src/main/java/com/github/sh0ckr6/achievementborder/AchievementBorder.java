@@ -1,19 +1,33 @@
 package com.github.sh0ckr6.achievementborder;
 
+import com.github.sh0ckr6.achievementborder.advancements.AdvancementCatalog;
+import com.github.sh0ckr6.achievementborder.advancements.AwardPropagator;
+import com.github.sh0ckr6.achievementborder.advancements.AwardScheduler;
+import com.github.sh0ckr6.achievementborder.advancements.PlayerCompletionCache;
+import com.github.sh0ckr6.achievementborder.advancements.SharedAdvancements;
+import com.github.sh0ckr6.achievementborder.border.BorderUpdater;
+import com.github.sh0ckr6.achievementborder.border.ChunkPregenerator;
+import com.github.sh0ckr6.achievementborder.border.ChunkTicketManager;
+import com.github.sh0ckr6.achievementborder.border.DropDensityManager;
+import com.github.sh0ckr6.achievementborder.border.OutsideBorderSweeper;
+import com.github.sh0ckr6.achievementborder.border.PortalController;
+import com.github.sh0ckr6.achievementborder.border.SpawnLimitController;
+import com.github.sh0ckr6.achievementborder.border.ViewDistanceController;
 import com.github.sh0ckr6.achievementborder.builders.ShapedRecipeBuilder;
+import com.github.sh0ckr6.achievementborder.commands.BorderCommand;
 import com.github.sh0ckr6.achievementborder.commands.ConfigCommand;
 import com.github.sh0ckr6.achievementborder.listeners.BorderControl;
 import com.github.sh0ckr6.achievementborder.listeners.MobControl;
 import com.github.sh0ckr6.achievementborder.listeners.WorldSetup;
+import com.github.sh0ckr6.achievementborder.managers.ConfigKey;
+import com.github.sh0ckr6.achievementborder.managers.ConfigKeys;
 import com.github.sh0ckr6.achievementborder.managers.ConfigManager;
 import com.github.sh0ckr6.achievementborder.managers.Configuration;
 import org.bukkit.Material;
-import org.bukkit.advancement.Advancement;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,7 +43,117 @@ import java.util.Map;
  */
 public final class AchievementBorder extends JavaPlugin {
   
-  public List<Advancement> advancements = new ArrayList<>();
+  /**
+   * Every advancement that counts towards the border, rebuilt by {@link #rebuildCatalog()}
+   *
+   * @since latest
+   */
+  public AdvancementCatalog catalog;
+  
+  /**
+   * The {@code advancement-categories} rules {@link #catalog} was built from
+   *
+   * @since latest
+   */
+  private List<String> catalogRules;
+  
+  /**
+   * The advancements that have been completed and shared between all players
+   *
+   * @since 1.0
+   */
+  public SharedAdvancements advancements;
+  
+  /**
+   * Snapshots of each player's completed advancements, used to speed up joins
+   *
+   * @since latest
+   */
+  public PlayerCompletionCache completionCache;
+  
+  /**
+   * Grants shared advancements and recognises the events caused by those grants
+   *
+   * @since latest
+   */
+  public AwardPropagator propagator;
+  
+  /**
+   * Spreads advancement grants over several ticks
+   *
+   * @since latest
+   */
+  public AwardScheduler awardScheduler;
+  
+  /**
+   * Keeps every configured world's border in line with {@link #advancements}
+   *
+   * @since latest
+   */
+  public BorderUpdater borderUpdater;
+  
+  /**
+   * Generates the chunks the border is about to grow into
+   *
+   * @since latest
+   */
+  public ChunkPregenerator pregenerator;
+  
+  /**
+   * Scales each player's view distance to the border
+   *
+   * @since latest
+   */
+  public ViewDistanceController viewDistanceController;
+  
+  /**
+   * Keeps the chunks inside small borders loaded instead of the whole spawn area
+   *
+   * @since latest
+   */
+  public ChunkTicketManager chunkTickets;
+  
+  /**
+   * Keeps nether portal travel inside the destination's border
+   *
+   * @since latest
+   */
+  public PortalController portalController;
+  
+  /**
+   * Scales each world's own spawn limits to its border
+   *
+   * @since latest
+   */
+  public SpawnLimitController spawnLimits;
+  
+  /**
+   * Merges dropped items and experience orbs in crowded borders
+   *
+   * @since latest
+   */
+  public DropDensityManager dropDensity;
+  
+  /**
+   * Removes or pushes back entities outside the border
+   *
+   * @since latest
+   */
+  public OutsideBorderSweeper outsideSweeper;
+  
+  /**
+   * Caps the number of hostile mobs
+   *
+   * @since latest
+   */
+  public MobControl mobControl;
+  
+  /**
+   * Shares advancements between players and keeps the border in step with them
+   *
+   * @since latest
+   */
+  public BorderControl borderControl;
   
   /**
    * Plugin setup
@@ -42,10 +166,24 @@ public final class AchievementBorder extends JavaPlugin {
   public void onEnable() {
     // Plugin startup logic
     setupConfigs();
+    catalogRules = ConfigKeys.ADVANCEMENT_CATEGORIES.get();
+    catalog = AdvancementCatalog.build(catalogRules);
+    advancements = new SharedAdvancements(catalog);
+    completionCache = new PlayerCompletionCache(this);
+    propagator = new AwardPropagator(this);
+    pregenerator = new ChunkPregenerator(this);
+    viewDistanceController = new ViewDistanceController(this);
+    chunkTickets = new ChunkTicketManager(this);
+    portalController = new PortalController(this);
+    spawnLimits = new SpawnLimitController(this);
+    dropDensity = new DropDensityManager(this);
+    outsideSweeper = new OutsideBorderSweeper(this);
+    borderUpdater = new BorderUpdater(this);
+    awardScheduler = new AwardScheduler(this, borderUpdater::markDirty);
     
-    new BorderControl(this);
+    borderControl = new BorderControl(this);
     new WorldSetup(this);
-    new MobControl(this);
+    mobControl = new MobControl(this);
     
     registerCommands();
     registerRecipes();
@@ -60,7 +198,14 @@ public final class AchievementBorder extends JavaPlugin {
   @Override
   public void onDisable() {
     // Plugin shutdown logic
-    ConfigManager.setInConfig("config", "advancements", advancements.stream().map(advancement -> advancement.getKey().toString()).toArray());
+    awardScheduler.restoreAnnouncements();
+    completionCache.saveAll();
+    chunkTickets.releaseAll();
+    spawnLimits.restoreAll();
+    // The key list survives Minecraft updates and data pack changes, the compact form is only reused while the catalog is unchanged
+    ConfigKeys.ADVANCEMENT_DATA.set(advancements.serialize());
+    ConfigKeys.ADVANCEMENTS.set(advancements.toKeys());
+    ConfigManager.flushConfigs();
   }
   
   /**
@@ -74,18 +219,25 @@ public final class AchievementBorder extends JavaPlugin {
     ConfigManager.loadAllConfigs(this);
     
     // Generate configs if not present
-    ConfigManager.createIfNotPresent("config", this);
+    ConfigManager.createIfNotPresent(ConfigKeys.CONFIG, this);
     
-    // Setup config.yml defaults
-    Configuration config = ConfigManager.getConfig("config");
-    config.yamlConfig.addDefault("setup-complete", false);
-    config.yamlConfig.addDefault("starting-size", 1);
-    config.yamlConfig.addDefault("advancements", new String[]{});
+    // Setup config.yml defaults, every value read by key first and then the sections read as a whole
+    Configuration config = ConfigManager.getConfig(ConfigKeys.CONFIG);
+    for (ConfigKey<?> key : ConfigKeys.ALL) {
+      if (key.getDefault() != null) config.yamlConfig.addDefault(key.getPath(), key.getDefault());
+    }
     Map<String, Boolean> borderWorlds = new HashMap<>();
     for (World world : Bukkit.getWorlds()) {
       borderWorlds.put(world.getName(), true);
     }
     config.yamlConfig.addDefault("borders", borderWorlds);
+    config.yamlConfig.addDefault("growth.per-advancement", 5);
+    config.yamlConfig.addDefault("growth.categories", new HashMap<String, Integer>());
+    config.yamlConfig.addDefault("growth.advancements", new HashMap<String, Integer>());
+    config.yamlConfig.addDefault("growth.diminishing-after", -1);
+    config.yamlConfig.addDefault("growth.diminishing-exponent", 1.0);
+    config.yamlConfig.addDefault("growth.max-size", 60000000);
+    config.yamlConfig.addDefault("culling.rules", new HashMap<String, String>());
     config.yamlConfig.options().copyDefaults(true);
     ConfigManager.saveConfig(config);
     
@@ -93,6 +245,47 @@ public final class AchievementBorder extends JavaPlugin {
     ConfigManager.reloadConfigs(this);
   }
   
+  /**
+   * Rebuild the {@link AdvancementCatalog}, for example after the server's data packs were reloaded.<br>
+   * {@link #advancements} is remapped by key so it only holds advancements from the new catalog. Online players need
+   * to be synced again afterwards with {@link BorderControl#syncOnlinePlayers()}.
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void rebuildCatalog() {
+    catalogRules = ConfigKeys.ADVANCEMENT_CATEGORIES.get();
+    catalog = AdvancementCatalog.build(catalogRules);
+    advancements.remap(catalog);
+    completionCache.clear();
+    awardScheduler.clear();
+    borderUpdater.loadSettings();
+  }
+  
+  /**
+   * Refresh any settings that were cached from the configs, called after configs are reloaded from disk
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void onConfigsReloaded() {
+    // Only rebuilt when the rules changed, since every online player has to be rescanned afterwards
+    if (!ConfigKeys.ADVANCEMENT_CATEGORIES.get().equals(catalogRules)) {
+      rebuildCatalog();
+      borderControl.syncOnlinePlayers();
+    }
+    awardScheduler.loadSettings();
+    borderUpdater.loadSettings();
+    pregenerator.loadSettings();
+    viewDistanceController.loadSettings();
+    chunkTickets.loadSettings();
+    portalController.loadSettings();
+    mobControl.loadSettings();
+    spawnLimits.loadSettings();
+    dropDensity.loadSettings();
+    outsideSweeper.loadSettings();
+  }
+  
   /**
    * Helper function to register recipes
    *
@@ -125,5 +318,6 @@ public final class AchievementBorder extends JavaPlugin {
    */
   private void registerCommands() {
     new ConfigCommand(this);
+    new BorderCommand(this);
   }
 }
@@ -0,0 +1,273 @@
+package com.github.sh0ckr6.achievementborder.advancements;
+
+import org.bukkit.Bukkit;
+import org.bukkit.NamespacedKey;
+import org.bukkit.advancement.Advancement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of every {@link Advancement} that counts towards the border.<br><br>
+ *
+ * Every valid advancement is assigned a dense ordinal (0 to {@link #size()} - 1) so that other structures can
+ * index advancements with plain arrays instead of walking {@link Bukkit#advancementIterator()} and re-checking
+ * the category of each advancement. A catalog is built once when the plugin is enabled and rebuilt whenever the
+ * server reloads its data packs.<br><br>
+ *
+ * Categories are matched with a list of rules:
+ * <ul>
+ *   <li>{@code story} matches any advancement whose path starts with {@code story}, in any namespace</li>
+ *   <li>{@code mypack:quests} matches advancements in the {@code mypack} namespace whose path starts with {@code quests}</li>
+ *   <li>{@code mypack:} matches every advancement in the {@code mypack} namespace</li>
+ * </ul>
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+public final class AdvancementCatalog {
+
+  /**
+   * The default category rules, matching the vanilla advancement tabs and nothing from data packs
+   *
+   * @since latest
+   */
+  public static final List<String> DEFAULT_CATEGORIES = List.of("minecraft:story", "minecraft:nether", "minecraft:adventure", "minecraft:end", "minecraft:husbandry");
+
+  /**
+   * Valid advancements, indexed by ordinal
+   *
+   * @since latest
+   */
+  private final Advancement[] advancements;
+
+  /**
+   * The category rule each advancement matched, indexed by ordinal
+   *
+   * @since latest
+   */
+  private final String[] categories;
+
+  /**
+   * Lookup from an advancement's key to its ordinal
+   *
+   * @since latest
+   */
+  private final Map<NamespacedKey, Integer> ordinals;
+
+  /**
+   * Hash of every key in ordinal order, used to tell if data saved against another catalog can be reused as-is
+   *
+   * @since latest
+   */
+  private final int fingerprint;
+
+  /**
+   * Creates a new catalog from advancements that have already been sorted and classified
+   *
+   * @param advancements The valid advancements in ordinal order
+   * @param categories The category rule matched by each advancement
+   * @author sh0ckR6
+   * @since latest
+   */
+  private AdvancementCatalog(Advancement[] advancements, String[] categories) {
+    this.advancements = advancements;
+    this.categories = categories;
+    this.ordinals = new HashMap<>(advancements.length * 2);
+    int hash = 1;
+    for (int ordinal = 0; ordinal < advancements.length; ordinal++) {
+      NamespacedKey key = advancements[ordinal].getKey();
+      ordinals.put(key, ordinal);
+      hash = 31 * hash + key.toString().hashCode();
+    }
+    this.fingerprint = hash;
+  }
+
+  /**
+   * Walk every advancement known to the server once and build a catalog from the ones matching {@code rules}
+   *
+   * @param rules The category rules an advancement must match to be counted
+   * @return The built catalog
+   * @author sh0ckR6
+   * @since latest
+   */
+  public static AdvancementCatalog build(List<String> rules) {
+    return build(Bukkit.advancementIterator(), rules);
+  }
+
+  /**
+   * Build a catalog from the given advancements instead of every advancement known to the server
+   *
+   * @param it The advancements to pick from, in any order
+   * @param rules The category rules an advancement must match to be counted
+   * @return The built catalog
+   * @author sh0ckR6
+   * @since latest
+   */
+  public static AdvancementCatalog build(Iterator<Advancement> it, List<String> rules) {
+    List<Advancement> valid = new ArrayList<>();
+    List<String> validCategories = new ArrayList<>();
+    while (it.hasNext()) {
+      Advancement advancement = it.next();
+      String category = classify(advancement.getKey(), rules);
+      if (category == null) continue;
+      valid.add(advancement);
+      validCategories.add(category);
+    }
+
+    // Sort by key so ordinals (and the fingerprint) stay stable between restarts
+    Integer[] order = new Integer[valid.size()];
+    for (int i = 0; i < order.length; i++) order[i] = i;
+    Arrays.sort(order, Comparator.comparing(i -> valid.get(i).getKey().toString()));
+
+    Advancement[] advancements = new Advancement[order.length];
+    String[] categories = new String[order.length];
+    for (int ordinal = 0; ordinal < order.length; ordinal++) {
+      advancements[ordinal] = valid.get(order[ordinal]);
+      categories[ordinal] = validCategories.get(order[ordinal]);
+    }
+    return new AdvancementCatalog(advancements, categories);
+  }
+
+  /**
+   * Helper function for finding the category rule an advancement matches.<br>
+   * Recipe unlocks are also {@link Advancement}s, which is why anything that doesn't match a rule is ignored.
+   *
+   * @param key The key of the advancement to classify
+   * @param rules The category rules to check against
+   * @return The first rule the advancement matched, or null if it isn't a valid advancement
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static String classify(NamespacedKey key, List<String> rules) {
+    for (String rule : rules) {
+      int separator = rule.indexOf(':');
+      if (separator < 0) {
+        if (key.getKey().startsWith(rule)) return rule;
+      } else if (key.getNamespace().equals(rule.substring(0, separator)) && key.getKey().startsWith(rule.substring(separator + 1))) {
+        return rule;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Get the ordinal of an advancement
+   *
+   * @param key The key of the advancement
+   * @return The advancement's ordinal, or -1 if it isn't a valid advancement
+   * @author sh0ckR6
+   * @since latest
+   */
+  public int ordinalOf(NamespacedKey key) {
+    Integer ordinal = ordinals.get(key);
+    return ordinal == null ? -1 : ordinal;
+  }
+
+  /**
+   * Get the ordinal of an advancement
+   *
+   * @param advancement The advancement
+   * @return The advancement's ordinal, or -1 if it isn't a valid advancement
+   * @author sh0ckR6
+   * @since latest
+   */
+  public int ordinalOf(Advancement advancement) {
+    return ordinalOf(advancement.getKey());
+  }
+
+  /**
+   * Check if an advancement counts towards the border
+   *
+   * @param advancement The advancement to check
+   * @return If the {@code advancement} is a valid advancement
+   * @author sh0ckR6
+   * @since latest
+   */
+  public boolean isValid(Advancement advancement) {
+    return ordinals.containsKey(advancement.getKey());
+  }
+
+  /**
+   * Get an advancement by ordinal
+   *
+   * @param ordinal The ordinal of the advancement
+   * @return The advancement
+   * @author sh0ckR6
+   * @since latest
+   */
+  public Advancement get(int ordinal) {
+    return advancements[ordinal];
+  }
+
+  /**
+   * Get the category rule an advancement matched when the catalog was built
+   *
+   * @param ordinal The ordinal of the advancement
+   * @return The matched category rule
+   * @author sh0ckR6
+   * @since latest
+   */
+  public String getCategory(int ordinal) {
+    return categories[ordinal];
+  }
+
+  /**
+   * @return The number of valid advancements
+   * @author sh0ckR6
+   * @since latest
+   */
+  public int size() {
+    return advancements.length;
+  }
+
+  /**
+   * @return A hash of every key in this catalog, in ordinal order
+   * @author sh0ckR6
+   * @since latest
+   */
+  public int getFingerprint() {
+    return fingerprint;
+  }
+
+  /**
+   * Encode a set of ordinals from this catalog to a compact string of the form {@code <fingerprint>:<base64 bits>}
+   *
+   * @param ordinals The ordinals to encode
+   * @return The encoded ordinals
+   * @author sh0ckR6
+   * @since latest
+   * @see #decode(String)
+   */
+  public String encode(BitSet ordinals) {
+    return Integer.toHexString(fingerprint) + ':' + Base64.getEncoder().encodeToString(ordinals.toByteArray());
+  }
+
+  /**
+   * Decode a set of ordinals written by {@link #encode(BitSet)}.<br>
+   * Nothing is decoded if the data was written by a different catalog, since ordinals may have shifted.
+   *
+   * @param data The encoded ordinals
+   * @return The decoded ordinals, or null if the data is invalid or belongs to another catalog
+   * @author sh0ckR6
+   * @since latest
+   */
+  public BitSet decode(String data) {
+    if (data == null) return null;
+    int separator = data.indexOf(':');
+    if (separator < 0 || !data.substring(0, separator).equals(Integer.toHexString(fingerprint))) return null;
+    try {
+      BitSet decoded = BitSet.valueOf(Base64.getDecoder().decode(data.substring(separator + 1).trim()));
+      return decoded.length() > advancements.length ? null : decoded;
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,149 @@
+package com.github.sh0ckr6.achievementborder.advancements;
+
+import com.github.sh0ckr6.achievementborder.AchievementBorder;
+import org.bukkit.Bukkit;
+import org.bukkit.advancement.Advancement;
+import org.bukkit.advancement.AdvancementProgress;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerAdvancementDoneEvent;
+
+/**
+ * Grants shared advancements to players while keeping track of which {@link PlayerAdvancementDoneEvent}s were
+ * caused by the plugin itself.<br><br>
+ *
+ * Awarding the last criterion of an advancement fires a {@link PlayerAdvancementDoneEvent} straight away, which
+ * re-enters the unlock handler. Without tracking this, a single unlock would be propagated to every player once per
+ * player, and the border would be updated once per grant.
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+public class AwardPropagator {
+
+  /**
+   * Reference to the plugin
+   *
+   * @since latest
+   */
+  private final AchievementBorder plugin;
+
+  /**
+   * How many grants are currently on the stack. Any {@link PlayerAdvancementDoneEvent} fired while this is above 0
+   * was caused by the plugin.
+   *
+   * @since latest
+   */
+  private int depth = 0;
+
+  /**
+   * Number of unlocks that were propagated to every player
+   *
+   * @since latest
+   */
+  private long logicalUnlocks = 0;
+
+  /**
+   * Number of advancements granted to players by the plugin
+   *
+   * @since latest
+   */
+  private long grants = 0;
+
+  /**
+   * Number of {@link PlayerAdvancementDoneEvent}s that were recognised as the plugin's own grants and skipped
+   *
+   * @since latest
+   */
+  private long absorbedEvents = 0;
+
+  /**
+   * Creates a new propagator
+   *
+   * @param plugin The current plugin
+   * @author sh0ckR6
+   * @since latest
+   */
+  public AwardPropagator(AchievementBorder plugin) {
+    this.plugin = plugin;
+  }
+
+  /**
+   * Check if an event was caused by one of the plugin's own grants, counting it as absorbed if so
+   *
+   * @return True if the plugin is currently granting an advancement
+   * @author sh0ckR6
+   * @since latest
+   */
+  public boolean absorb() {
+    if (depth == 0) return false;
+    absorbedEvents++;
+    return true;
+  }
+
+  /**
+   * Propagate an advancement a player unlocked by themselves to every other online player.<br>
+   * The grants are queued on the {@link AwardScheduler} rather than made straight away.
+   *
+   * @param advancement The unlocked advancement
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void propagate(Advancement advancement) {
+    logicalUnlocks++;
+    for (Player player : Bukkit.getOnlinePlayers()) {
+      plugin.awardScheduler.enqueue(player, advancement, false);
+    }
+  }
+
+  /**
+   * Award every remaining criterion of an {@link Advancement} to a {@link Player}
+   *
+   * @param player The player to award the advancement to
+   * @param advancement The advancement to award
+   * @return True if the player didn't have the advancement yet
+   * @author sh0ckR6
+   * @since latest
+   */
+  public boolean grant(Player player, Advancement advancement) {
+    AdvancementProgress advancementProgress = player.getAdvancementProgress(advancement);
+    if (advancementProgress.isDone()) return false;
+
+    depth++;
+    try {
+      for (String remainingCriterion : advancementProgress.getRemainingCriteria()) {
+        advancementProgress.awardCriteria(remainingCriterion);
+      }
+    } finally {
+      depth--;
+    }
+    grants++;
+    return true;
+  }
+
+  /**
+   * @return Number of unlocks that were propagated to every player
+   * @author sh0ckR6
+   * @since latest
+   */
+  public long getLogicalUnlocks() {
+    return logicalUnlocks;
+  }
+
+  /**
+   * @return Number of advancements granted to players by the plugin
+   * @author sh0ckR6
+   * @since latest
+   */
+  public long getGrants() {
+    return grants;
+  }
+
+  /**
+   * @return Number of events that were recognised as the plugin's own grants and skipped
+   * @author sh0ckR6
+   * @since latest
+   */
+  public long getAbsorbedEvents() {
+    return absorbedEvents;
+  }
+}
@@ -0,0 +1,315 @@
+package com.github.sh0ckr6.achievementborder.advancements;
+
+import com.github.sh0ckr6.achievementborder.AchievementBorder;
+import com.github.sh0ckr6.achievementborder.managers.ConfigKeys;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.GameRule;
+import org.bukkit.World;
+import org.bukkit.advancement.Advancement;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Queues advancement grants and drains them on the main thread within a per-tick time budget.<br><br>
+ *
+ * Catching a fresh player up on a late-game run can mean hundreds of grants, each of which updates the player's
+ * advancement data and fires events. Spreading them over several ticks keeps a single join from stalling the server.<br><br>
+ *
+ * Unless {@code announce-synced-advancements} is enabled, the chat announcements for grants made while catching a
+ * player up are muted, and the player receives a single summary line once their grants are done. Announcements are
+ * only turned off in the world of the player being caught up, and only for as long as their grants are being made.
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+public class AwardScheduler {
+
+  /**
+   * A single pending grant
+   *
+   * @param player The {@link UUID} of the player to grant to
+   * @param advancement The advancement to grant
+   * @param bulk If this grant is part of catching a player up, rather than propagating a single unlock
+   * @since latest
+   */
+  private record PendingGrant(UUID player, Advancement advancement, boolean bulk) {}
+
+  /**
+   * Progress of a player being caught up in bulk
+   *
+   * @since latest
+   */
+  private static class BulkSync {
+    /**
+     * Bulk grants still in the queue
+     *
+     * @since latest
+     */
+    int pending;
+    /**
+     * Bulk grants the player didn't already have
+     *
+     * @since latest
+     */
+    int granted;
+  }
+
+  /**
+   * Reference to the plugin
+   *
+   * @since latest
+   */
+  private final AchievementBorder plugin;
+
+  /**
+   * Grants waiting to be made, oldest first
+   *
+   * @since latest
+   */
+  private final Deque<PendingGrant> queue = new ArrayDeque<>();
+
+  /**
+   * Players with bulk grants in the queue
+   *
+   * @since latest
+   */
+  private final Map<UUID, BulkSync> bulkSyncs = new HashMap<>();
+
+  /**
+   * Worlds whose advancement announcements are turned off while bulk grants are made, and need turning back on
+   *
+   * @since latest
+   */
+  private final Set<World> mutedWorlds = new HashSet<>();
+
+  /**
+   * Called once the borders need to reflect the shared advancements again
+   *
+   * @since latest
+   */
+  private final Runnable borderUpdate;
+
+  /**
+   * How long the queue may be drained for each tick, in nanoseconds
+   *
+   * @since latest
+   */
+  private long budgetNanos;
+
+  /**
+   * How many ticks a border update may be held back while the queue is still draining
+   *
+   * @since latest
+   */
+  private int borderInterval;
+
+  /**
+   * If the chat announcements for the plugin's grants should be sent
+   *
+   * @since latest
+   */
+  private boolean announceGrants;
+
+  /**
+   * If a border update has been requested but not applied yet
+   *
+   * @since latest
+   */
+  private boolean borderDirty = false;
+
+  /**
+   * Ticks since the last border update was applied
+   *
+   * @since latest
+   */
+  private int ticksSinceBorderUpdate = 0;
+
+  /**
+   * Creates a new scheduler and starts draining it every tick
+   *
+   * @param plugin The current plugin
+   * @param borderUpdate Called once the borders need to be updated
+   * @author sh0ckR6
+   * @since latest
+   */
+  public AwardScheduler(AchievementBorder plugin, Runnable borderUpdate) {
+    this.plugin = plugin;
+    this.borderUpdate = borderUpdate;
+    loadSettings();
+    Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1, 1);
+  }
+
+  /**
+   * Read the tick budget, border interval and announcement setting from the config
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void loadSettings() {
+    budgetNanos = (long) (ConfigKeys.AWARD_BUDGET_MS.get() * 1_000_000);
+    borderInterval = ConfigKeys.AWARD_BORDER_INTERVAL.get();
+    announceGrants = ConfigKeys.ANNOUNCE_SYNCED_ADVANCEMENTS.get();
+  }
+
+  /**
+   * Queue a grant
+   *
+   * @param player The player to grant to
+   * @param advancement The advancement to grant
+   * @param bulk If this grant is part of catching the player up, so it should be included in their summary
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void enqueue(Player player, Advancement advancement, boolean bulk) {
+    queue.add(new PendingGrant(player.getUniqueId(), advancement, bulk));
+    if (bulk) bulkSyncs.computeIfAbsent(player.getUniqueId(), uuid -> new BulkSync()).pending++;
+  }
+
+  /**
+   * Drop every pending grant for a player, for example because they left the server
+   *
+   * @param player The {@link UUID} of the player
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void cancel(UUID player) {
+    queue.removeIf(grant -> grant.player().equals(player));
+    bulkSyncs.remove(player);
+  }
+
+  /**
+   * Drop every pending grant, for example because the advancements they refer to were reloaded
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void clear() {
+    queue.clear();
+    bulkSyncs.clear();
+  }
+
+  /**
+   * Request a border update. It is applied once the queue is drained, or after at most {@link #borderInterval} ticks.
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void requestBorderUpdate() {
+    borderDirty = true;
+  }
+
+  /**
+   * @return The number of grants waiting to be made
+   * @author sh0ckR6
+   * @since latest
+   */
+  public int getQueueDepth() {
+    return queue.size();
+  }
+
+  /**
+   * Drain the queue until it is empty or this tick's budget is used up, then apply any pending border update
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void tick() {
+    if (!queue.isEmpty()) {
+      try {
+        drain();
+      } finally {
+        restoreAnnouncements();
+      }
+    }
+
+    ticksSinceBorderUpdate++;
+    if (borderDirty && (queue.isEmpty() || ticksSinceBorderUpdate >= borderInterval)) {
+      borderDirty = false;
+      ticksSinceBorderUpdate = 0;
+      borderUpdate.run();
+    }
+  }
+
+  /**
+   * Make grants until the queue is empty or this tick's budget is used up
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void drain() {
+    long deadline = System.nanoTime() + budgetNanos;
+    // Always make at least one grant per tick so a tiny budget can't stall the queue
+    do {
+      PendingGrant grant = queue.poll();
+      if (grant == null) break;
+      Player player = Bukkit.getPlayer(grant.player());
+      if (player == null) continue;
+      // Only grants made while catching a player up are kept out of the chat
+      if (!announceGrants) setAnnouncements(player.getWorld(), !grant.bulk());
+      boolean granted = plugin.propagator.grant(player, grant.advancement());
+      int ordinal = plugin.catalog.ordinalOf(grant.advancement());
+      if (ordinal >= 0) plugin.completionCache.markCompleted(grant.player(), ordinal);
+      if (grant.bulk()) finishBulkGrant(player, granted);
+    } while (System.nanoTime() < deadline);
+  }
+
+  /**
+   * Record that one of a player's bulk grants was made, sending them a summary once they are caught up
+   *
+   * @param player The player the grant was made to
+   * @param granted If the player didn't already have the advancement
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void finishBulkGrant(Player player, boolean granted) {
+    BulkSync sync = bulkSyncs.get(player.getUniqueId());
+    if (sync == null) return;
+    if (granted) sync.granted++;
+    if (--sync.pending > 0) return;
+
+    bulkSyncs.remove(player.getUniqueId());
+    if (sync.granted > 0) {
+      player.sendMessage(ChatColor.GREEN + "Synced " + ChatColor.GOLD + sync.granted + ChatColor.GREEN + " shared advancement" + (sync.granted == 1 ? "" : "s") + '!');
+    }
+  }
+
+  /**
+   * Turn advancement announcements back on in every world they were turned off in. Called at the end of every tick
+   * that made grants, and when the plugin is disabled.
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void restoreAnnouncements() {
+    for (World world : mutedWorlds) {
+      world.setGameRule(GameRule.ANNOUNCE_ADVANCEMENTS, true);
+    }
+    mutedWorlds.clear();
+  }
+
+  /**
+   * Helper function to turn advancement announcements in a world off for the next grant, or back on if they were
+   * turned off by an earlier one. Worlds that have announcements turned off by their own settings are left alone.
+   *
+   * @param world The world of the player the next grant is made to
+   * @param announced If the next grant should be announced
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void setAnnouncements(World world, boolean announced) {
+    if (announced) {
+      if (mutedWorlds.remove(world)) world.setGameRule(GameRule.ANNOUNCE_ADVANCEMENTS, true);
+    } else if (!mutedWorlds.contains(world) && Boolean.TRUE.equals(world.getGameRuleValue(GameRule.ANNOUNCE_ADVANCEMENTS))) {
+      world.setGameRule(GameRule.ANNOUNCE_ADVANCEMENTS, false);
+      mutedWorlds.add(world);
+    }
+  }
+}
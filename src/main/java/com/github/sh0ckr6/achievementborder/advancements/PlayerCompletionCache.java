@@ -0,0 +1,248 @@
+package com.github.sh0ckr6.achievementborder.advancements;
+
+import com.github.sh0ckr6.achievementborder.AchievementBorder;
+import org.bukkit.Bukkit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-player snapshots of completed advancements, stored as {@code players/<uuid>.dat} in the plugin's data folder.<br><br>
+ *
+ * A snapshot records which catalog ordinals a player had completed the last time the plugin saw them, so that a
+ * returning player can be reconciled against the {@link SharedAdvancements} with a set difference instead of
+ * looking up their progress for every advancement in the catalog. Snapshots are only a hint: whatever a snapshot
+ * claims a player has completed is still checked against their live progress when they join.<br><br>
+ *
+ * Snapshots are written in the background when a player leaves. Until a write has finished, reads for that player
+ * use the data being written, so a quick rejoin can't load the snapshot from before they left.
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+public class PlayerCompletionCache {
+
+  /**
+   * Reference to the plugin
+   *
+   * @since latest
+   */
+  private final AchievementBorder plugin;
+
+  /**
+   * The folder snapshots are stored in
+   *
+   * @since latest
+   */
+  private final File folder;
+
+  /**
+   * Snapshots of players that are online or about to join. Only mutated on the main thread, apart from
+   * {@link #preload(UUID)} putting freshly read snapshots.
+   *
+   * @since latest
+   */
+  private final Map<UUID, BitSet> snapshots = new ConcurrentHashMap<>();
+
+  /**
+   * Players whose snapshot was preloaded while logging in and who haven't joined yet
+   *
+   * @since latest
+   */
+  private final Set<UUID> preloaded = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Encoded snapshots that are being written to disk in the background, by player
+   *
+   * @since latest
+   */
+  private final Map<UUID, String> pendingWrites = new ConcurrentHashMap<>();
+
+  /**
+   * Held while writing a snapshot, so background writes for the same player can't finish out of order
+   *
+   * @since latest
+   */
+  private final Object writeLock = new Object();
+
+  /**
+   * Creates a new cache storing snapshots in the plugin's data folder
+   *
+   * @param plugin The current plugin
+   * @author sh0ckR6
+   * @since latest
+   */
+  public PlayerCompletionCache(AchievementBorder plugin) {
+    this.plugin = plugin;
+    this.folder = new File(plugin.getDataFolder(), "players");
+  }
+
+  /**
+   * Read a player's snapshot from disk ahead of time. Safe to call from an asynchronous thread, for example while the
+   * player is logging in.
+   *
+   * @param uuid The player's {@link UUID}
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void preload(UUID uuid) {
+    BitSet snapshot = read(uuid);
+    if (snapshot != null && snapshots.putIfAbsent(uuid, snapshot) == null) preloaded.add(uuid);
+  }
+
+  /**
+   * Forget a snapshot that was preloaded for a player whose login then failed. Does nothing if the player has joined.
+   *
+   * @param uuid The player's {@link UUID}
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void discardPreload(UUID uuid) {
+    if (preloaded.remove(uuid)) snapshots.remove(uuid);
+  }
+
+  /**
+   * Get a player's snapshot, reading it from disk if it hasn't been preloaded
+   *
+   * @param uuid The player's {@link UUID}
+   * @return The player's snapshot, or null if the player has no valid snapshot for the current catalog
+   * @author sh0ckR6
+   * @since latest
+   */
+  public BitSet get(UUID uuid) {
+    preloaded.remove(uuid);
+    BitSet snapshot = snapshots.get(uuid);
+    if (snapshot != null) return snapshot;
+    snapshot = read(uuid);
+    if (snapshot != null) snapshots.put(uuid, snapshot);
+    return snapshot;
+  }
+
+  /**
+   * Replace a player's snapshot
+   *
+   * @param uuid The player's {@link UUID}
+   * @param snapshot The ordinals the player has completed
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void put(UUID uuid, BitSet snapshot) {
+    snapshots.put(uuid, snapshot);
+  }
+
+  /**
+   * Record that a player has completed an advancement. Does nothing if the player has no snapshot yet.
+   *
+   * @param uuid The player's {@link UUID}
+   * @param ordinal The ordinal of the completed advancement
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void markCompleted(UUID uuid, int ordinal) {
+    BitSet snapshot = snapshots.get(uuid);
+    if (snapshot != null) snapshot.set(ordinal);
+  }
+
+  /**
+   * Drop every snapshot held in memory, for example because the catalog was rebuilt and ordinals may have shifted
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void clear() {
+    snapshots.clear();
+  }
+
+  /**
+   * Write a player's snapshot to disk in the background and forget it
+   *
+   * @param uuid The player's {@link UUID}
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void saveAndEvict(UUID uuid) {
+    preloaded.remove(uuid);
+    BitSet snapshot = snapshots.remove(uuid);
+    if (snapshot == null) return;
+    String data = plugin.catalog.encode(snapshot);
+    pendingWrites.put(uuid, data);
+    Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> writePending(uuid, data));
+  }
+
+  /**
+   * Write every snapshot held in memory to disk on the current thread
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void saveAll() {
+    for (Map.Entry<UUID, String> entry : pendingWrites.entrySet()) {
+      writePending(entry.getKey(), entry.getValue());
+    }
+    for (Map.Entry<UUID, BitSet> entry : snapshots.entrySet()) {
+      write(entry.getKey(), plugin.catalog.encode(entry.getValue()));
+    }
+  }
+
+  /**
+   * Helper function to read a snapshot from disk
+   *
+   * @param uuid The player's {@link UUID}
+   * @return The snapshot, or null if there is none or it was written against a different catalog
+   * @author sh0ckR6
+   * @since latest
+   */
+  private BitSet read(UUID uuid) {
+    String pending = pendingWrites.get(uuid);
+    if (pending != null) return plugin.catalog.decode(pending);
+    File file = new File(folder, uuid + ".dat");
+    if (!file.exists()) return null;
+    try {
+      return plugin.catalog.decode(Files.readString(file.toPath(), StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      plugin.getLogger().warning("Could not read advancement snapshot for " + uuid + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Helper function to write a snapshot that is waiting to be written, unless a newer one has replaced it since
+   *
+   * @param uuid The player's {@link UUID}
+   * @param data The encoded snapshot
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void writePending(UUID uuid, String data) {
+    synchronized (writeLock) {
+      // Compared by identity: only the newest snapshot is written, older ones still in the queue are skipped
+      if (pendingWrites.get(uuid) != data) return;
+      write(uuid, data);
+      pendingWrites.computeIfPresent(uuid, (key, pending) -> pending == data ? null : pending);
+    }
+  }
+
+  /**
+   * Helper function to write a snapshot to disk
+   *
+   * @param uuid The player's {@link UUID}
+   * @param data The encoded snapshot
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void write(UUID uuid, String data) {
+    if (!folder.exists()) folder.mkdirs();
+    try {
+      Files.writeString(new File(folder, uuid + ".dat").toPath(), data, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      plugin.getLogger().warning("Could not save advancement snapshot for " + uuid + ": " + e.getMessage());
+    }
+  }
+}
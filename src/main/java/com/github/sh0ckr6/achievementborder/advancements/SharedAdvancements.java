@@ -0,0 +1,302 @@
+package com.github.sh0ckr6.achievementborder.advancements;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.advancement.Advancement;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * The set of advancements shared by every player, keyed by {@link AdvancementCatalog} ordinal.<br><br>
+ *
+ * Backed by a {@link BitSet}, so membership checks are O(1) and finding the advancements a player is missing
+ * is a single set difference instead of a {@code contains} call per advancement.<br><br>
+ *
+ * The set also keeps a running total of the growth weight of its advancements (see
+ * {@link com.github.sh0ckr6.achievementborder.border.GrowthFormula}), so the border size never needs to be
+ * recomputed from the full set.
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+public class SharedAdvancements {
+
+  /**
+   * The catalog the ordinals in {@link #completed} refer to
+   *
+   * @since latest
+   */
+  private AdvancementCatalog catalog;
+
+  /**
+   * One bit per catalog ordinal, set if the advancement has been completed
+   *
+   * @since latest
+   */
+  private BitSet completed = new BitSet();
+
+  /**
+   * Cached number of set bits in {@link #completed}
+   *
+   * @since latest
+   */
+  private int size = 0;
+
+  /**
+   * Growth weight of each advancement, indexed by ordinal
+   *
+   * @since latest
+   */
+  private int[] weights = new int[0];
+
+  /**
+   * Running total of the growth weight of every advancement in this set
+   *
+   * @since latest
+   */
+  private long totalWeight = 0;
+
+  /**
+   * Creates an empty set for the given catalog
+   *
+   * @param catalog The catalog ordinals refer to
+   * @author sh0ckR6
+   * @since latest
+   */
+  public SharedAdvancements(AdvancementCatalog catalog) {
+    this.catalog = catalog;
+  }
+
+  /**
+   * Check if an advancement has been completed
+   *
+   * @param ordinal The advancement's ordinal
+   * @return If the advancement is in this set
+   * @author sh0ckR6
+   * @since latest
+   */
+  public boolean contains(int ordinal) {
+    return ordinal >= 0 && completed.get(ordinal);
+  }
+
+  /**
+   * Check if an advancement has been completed
+   *
+   * @param advancement The advancement
+   * @return If the advancement is in this set
+   * @author sh0ckR6
+   * @since latest
+   */
+  public boolean contains(Advancement advancement) {
+    return contains(catalog.ordinalOf(advancement));
+  }
+
+  /**
+   * Add an advancement to this set
+   *
+   * @param ordinal The advancement's ordinal
+   * @return True if the advancement wasn't already in this set
+   * @author sh0ckR6
+   * @since latest
+   */
+  public boolean add(int ordinal) {
+    if (ordinal < 0 || completed.get(ordinal)) return false;
+    completed.set(ordinal);
+    size++;
+    totalWeight += weightOf(ordinal);
+    return true;
+  }
+
+  /**
+   * @return The number of completed advancements
+   * @author sh0ckR6
+   * @since latest
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return The total growth weight of every advancement in this set
+   * @author sh0ckR6
+   * @since latest
+   */
+  public long getTotalWeight() {
+    return totalWeight;
+  }
+
+  /**
+   * Set the growth weight of each advancement and recompute the running total
+   *
+   * @param weights The weight of each advancement, indexed by ordinal
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void setWeights(int[] weights) {
+    this.weights = weights;
+    recomputeTotalWeight();
+  }
+
+  /**
+   * Helper function to get the growth weight of an advancement
+   *
+   * @param ordinal The advancement's ordinal
+   * @return The advancement's weight, or 0 if no weight is known
+   * @author sh0ckR6
+   * @since latest
+   */
+  private int weightOf(int ordinal) {
+    return ordinal < weights.length ? weights[ordinal] : 0;
+  }
+
+  /**
+   * Helper function to recompute {@link #totalWeight} from scratch
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void recomputeTotalWeight() {
+    long total = 0;
+    for (int ordinal = completed.nextSetBit(0); ordinal >= 0; ordinal = completed.nextSetBit(ordinal + 1)) {
+      total += weightOf(ordinal);
+    }
+    totalWeight = total;
+  }
+
+  /**
+   * Get the advancements in this set that are missing from {@code other}
+   *
+   * @param other The ordinals to compare against
+   * @return A new {@link BitSet} of ordinals that are in this set, but not in {@code other}
+   * @author sh0ckR6
+   * @since latest
+   */
+  public BitSet missingFrom(BitSet other) {
+    BitSet missing = (BitSet) completed.clone();
+    missing.andNot(other);
+    return missing;
+  }
+
+  /**
+   * Get the advancements in {@code other} that are not in this set yet
+   *
+   * @param other The ordinals to compare against
+   * @return A new {@link BitSet} of ordinals that are in {@code other}, but not in this set
+   * @author sh0ckR6
+   * @since latest
+   */
+  public BitSet newIn(BitSet other) {
+    BitSet added = (BitSet) other.clone();
+    added.andNot(completed);
+    return added;
+  }
+
+  /**
+   * @return A copy of the ordinals in this set
+   * @author sh0ckR6
+   * @since latest
+   */
+  public BitSet copy() {
+    return (BitSet) completed.clone();
+  }
+
+  /**
+   * Run {@code action} for every ordinal in this set, in ascending order
+   *
+   * @param action The action to run
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void forEach(IntConsumer action) {
+    for (int ordinal = completed.nextSetBit(0); ordinal >= 0; ordinal = completed.nextSetBit(ordinal + 1)) {
+      action.accept(ordinal);
+    }
+  }
+
+  /**
+   * @return The catalog the ordinals in this set refer to
+   * @author sh0ckR6
+   * @since latest
+   */
+  public AdvancementCatalog getCatalog() {
+    return catalog;
+  }
+
+  /**
+   * Move this set over to a new catalog, translating ordinals by key. Advancements that no longer exist are dropped.<br>
+   * Weights refer to the old catalog's ordinals, so they are cleared until {@link #setWeights(int[])} is called again.
+   *
+   * @param newCatalog The catalog to move to
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void remap(AdvancementCatalog newCatalog) {
+    BitSet remapped = new BitSet(newCatalog.size());
+    forEach(ordinal -> {
+      int newOrdinal = newCatalog.ordinalOf(catalog.get(ordinal).getKey());
+      if (newOrdinal >= 0) remapped.set(newOrdinal);
+    });
+    catalog = newCatalog;
+    completed = remapped;
+    size = remapped.cardinality();
+    weights = new int[0];
+    totalWeight = 0;
+  }
+
+  /**
+   * Serialize this set to a compact string of the form {@code <catalog fingerprint>:<base64 bits>}
+   *
+   * @return The serialized set
+   * @author sh0ckR6
+   * @since latest
+   * @see #deserialize(String)
+   */
+  public String serialize() {
+    return catalog.encode(completed);
+  }
+
+  /**
+   * Load a set written by {@link #serialize()} into this set.<br>
+   * Nothing is loaded if the data was written against a different catalog, since ordinals may have shifted.
+   *
+   * @param data The serialized set
+   * @return True if the data was loaded
+   * @author sh0ckR6
+   * @since latest
+   */
+  public boolean deserialize(String data) {
+    BitSet loaded = catalog.decode(data);
+    if (loaded == null) return false;
+    completed.or(loaded);
+    size = completed.cardinality();
+    recomputeTotalWeight();
+    return true;
+  }
+
+  /**
+   * Add every advancement in a list of keys to this set. Keys that aren't in the catalog are ignored.
+   *
+   * @param keys The advancement keys, for example {@code minecraft:story/mine_stone}
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void addKeys(List<String> keys) {
+    for (String key : keys) {
+      NamespacedKey namespacedKey = NamespacedKey.fromString(key);
+      if (namespacedKey != null) add(catalog.ordinalOf(namespacedKey));
+    }
+  }
+
+  /**
+   * @return The key of every advancement in this set
+   * @author sh0ckR6
+   * @since latest
+   */
+  public List<String> toKeys() {
+    List<String> keys = new ArrayList<>(size);
+    forEach(ordinal -> keys.add(catalog.get(ordinal).getKey().toString()));
+    return keys;
+  }
+}
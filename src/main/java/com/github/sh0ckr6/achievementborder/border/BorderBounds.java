@@ -0,0 +1,127 @@
+package com.github.sh0ckr6.achievementborder.border;
+
+import org.bukkit.Location;
+import org.bukkit.WorldBorder;
+
+/**
+ * The square area enclosed by a world's border, in block coordinates
+ *
+ * @param minX The smallest x coordinate inside the border
+ * @param minZ The smallest z coordinate inside the border
+ * @param maxX The largest x coordinate inside the border
+ * @param maxZ The largest z coordinate inside the border
+ * @author sh0ckR6
+ * @since latest
+ */
+public record BorderBounds(double minX, double minZ, double maxX, double maxZ) {
+
+  /**
+   * Get the bounds a border will have once it reaches a size
+   *
+   * @param border The border
+   * @param size The size of the border
+   * @return The bounds of the border
+   * @author sh0ckR6
+   * @since latest
+   */
+  public static BorderBounds of(WorldBorder border, double size) {
+    Location center = border.getCenter();
+    double radius = size / 2;
+    return new BorderBounds(center.getX() - radius, center.getZ() - radius, center.getX() + radius, center.getZ() + radius);
+  }
+
+  /**
+   * @return The width of the border, in blocks
+   * @author sh0ckR6
+   * @since latest
+   */
+  public double size() {
+    return maxX - minX;
+  }
+
+  /**
+   * @return The area enclosed by the border, in square blocks
+   * @author sh0ckR6
+   * @since latest
+   */
+  public double area() {
+    return (maxX - minX) * (maxZ - minZ);
+  }
+
+  /**
+   * Check if a position is inside the border
+   *
+   * @param x The x coordinate
+   * @param z The z coordinate
+   * @return True if the position is inside the border
+   * @author sh0ckR6
+   * @since latest
+   */
+  public boolean contains(double x, double z) {
+    return x >= minX && x <= maxX && z >= minZ && z <= maxZ;
+  }
+
+  /**
+   * Move a location inside the border, keeping it at least {@code margin} blocks away from the edge where possible.
+   * If the border is narrower than twice the margin, the location is moved to the border's center on that axis.
+   *
+   * @param location The location to clamp, which isn't modified
+   * @param margin The distance to keep from the edge, in blocks
+   * @return A copy of the location inside the border
+   * @author sh0ckR6
+   * @since latest
+   */
+  public Location clamp(Location location, double margin) {
+    Location clamped = location.clone();
+    clamped.setX(clampAxis(location.getX(), minX, maxX, margin));
+    clamped.setZ(clampAxis(location.getZ(), minZ, maxZ, margin));
+    return clamped;
+  }
+
+  /**
+   * Helper function to clamp a single coordinate between two edges
+   *
+   * @param value The coordinate
+   * @param min The lower edge
+   * @param max The upper edge
+   * @param margin The distance to keep from either edge
+   * @return The clamped coordinate
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static double clampAxis(double value, double min, double max, double margin) {
+    if (max - min <= margin * 2) return (min + max) / 2;
+    return Math.max(min + margin, Math.min(max - margin, value));
+  }
+
+  /**
+   * Check if any part of a chunk is inside the border
+   *
+   * @param chunkX The chunk's x coordinate
+   * @param chunkZ The chunk's z coordinate
+   * @return True if the chunk overlaps the border
+   * @author sh0ckR6
+   * @since latest
+   */
+  public boolean overlapsChunk(int chunkX, int chunkZ) {
+    double blockX = chunkX << 4;
+    double blockZ = chunkZ << 4;
+    return blockX + 16 > minX && blockX < maxX && blockZ + 16 > minZ && blockZ < maxZ;
+  }
+
+  /**
+   * Get the chunk coordinates of every chunk that overlaps the border
+   *
+   * @return {@code {minChunkX, minChunkZ, maxChunkX, maxChunkZ}}, inclusive
+   * @author sh0ckR6
+   * @since latest
+   */
+  public int[] chunkRange() {
+    return new int[]{
+      (int) Math.floor(minX) >> 4,
+      (int) Math.floor(minZ) >> 4,
+      (int) Math.ceil(maxX - 1) >> 4,
+      (int) Math.ceil(maxZ - 1) >> 4
+    };
+  }
+}
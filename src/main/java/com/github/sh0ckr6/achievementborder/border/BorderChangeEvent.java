@@ -0,0 +1,121 @@
+package com.github.sh0ckr6.achievementborder.border;
+
+import org.bukkit.World;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Called by the {@link BorderUpdater} whenever it sends a new size to a world's border.<br><br>
+ *
+ * Anything derived from a border's size (mob caps, bounds, chunk tickets and so on) should be computed when this is
+ * called and cached, instead of reading the border on every use.
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+public class BorderChangeEvent extends Event {
+
+  /**
+   * Handlers listening to this event
+   *
+   * @since latest
+   */
+  private static final HandlerList HANDLERS = new HandlerList();
+
+  /**
+   * The world whose border changed
+   *
+   * @since latest
+   */
+  private final World world;
+
+  /**
+   * The size last sent to the border, or {@link Double#NaN} if none was sent since the world was loaded or the
+   * settings were reloaded
+   *
+   * @since latest
+   */
+  private final double previousSize;
+
+  /**
+   * The new size of the border
+   *
+   * @since latest
+   */
+  private final double size;
+
+  /**
+   * Creates a new event
+   *
+   * @param world The world whose border changed
+   * @param previousSize The size last sent to the border, or {@link Double#NaN} if there is none
+   * @param size The new size of the border
+   * @author sh0ckR6
+   * @since latest
+   */
+  public BorderChangeEvent(World world, double previousSize, double size) {
+    this.world = world;
+    this.previousSize = previousSize;
+    this.size = size;
+  }
+
+  /**
+   * @return The world whose border changed
+   * @author sh0ckR6
+   * @since latest
+   */
+  public World getWorld() {
+    return world;
+  }
+
+  /**
+   * @return The size last sent to the border, or {@link Double#NaN} if there is none
+   * @author sh0ckR6
+   * @since latest
+   */
+  public double getPreviousSize() {
+    return previousSize;
+  }
+
+  /**
+   * @return The new size of the border, or {@link BorderUpdater#DISABLED_SIZE} if it is turned off
+   * @author sh0ckR6
+   * @since latest
+   */
+  public double getSize() {
+    return size;
+  }
+
+  /**
+   * @return True if the border has been turned off in {@code config.yml/borders}
+   * @author sh0ckR6
+   * @since latest
+   */
+  public boolean isDisabled() {
+    return size >= BorderUpdater.DISABLED_SIZE;
+  }
+
+  /**
+   * @return The area the border will enclose once it reaches its new size
+   * @author sh0ckR6
+   * @since latest
+   */
+  public BorderBounds getBounds() {
+    return BorderBounds.of(world.getWorldBorder(), size);
+  }
+
+  @Override
+  public @NotNull HandlerList getHandlers() {
+    return HANDLERS;
+  }
+
+  /**
+   * @return Handlers listening to this event
+   * @author sh0ckR6
+   * @since latest
+   */
+  public static HandlerList getHandlerList() {
+    return HANDLERS;
+  }
+}
@@ -0,0 +1,238 @@
+package com.github.sh0ckr6.achievementborder.border;
+
+import com.github.sh0ckr6.achievementborder.AchievementBorder;
+import com.github.sh0ckr6.achievementborder.managers.ConfigKeys;
+import com.github.sh0ckr6.achievementborder.managers.ConfigManager;
+import com.github.sh0ckr6.achievementborder.managers.Configuration;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the border of every world listed in {@code config.yml/borders} in line with the shared advancements.<br><br>
+ *
+ * Updates are coalesced: {@link #markDirty()} can be called any number of times during a tick, and the target sizes
+ * are computed once on the next tick. A world's border is only changed if its target actually differs from the
+ * last size that was sent, so a batch of joins and unlocks produces one border transition per world.<br><br>
+ *
+ * Configured worlds are resolved once and kept up to date with {@link WorldLoadEvent}s and {@link WorldUnloadEvent}s,
+ * so worlds created later (for example by Multiverse) are picked up without looking every world up on each update.<br><br>
+ *
+ * Every size sent to a border is announced with a {@link BorderChangeEvent}.
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+public class BorderUpdater implements Listener {
+
+  /**
+   * The size of a border that has been turned off in {@code config.yml/borders}
+   *
+   * @since latest
+   */
+  public static final double DISABLED_SIZE = 60000000;
+
+  /**
+   * Reference to the plugin
+   *
+   * @since latest
+   */
+  private final AchievementBorder plugin;
+
+  /**
+   * Cached copy of {@code config.yml/borders}, mapping world names to whether their border is enabled
+   *
+   * @since latest
+   */
+  private Map<String, Boolean> borders = new LinkedHashMap<>();
+
+  /**
+   * Compiled copy of {@code config.yml/growth} and {@code config.yml/starting-size}
+   *
+   * @since latest
+   */
+  private GrowthFormula formula;
+
+  /**
+   * Configured worlds that are currently loaded, by name
+   *
+   * @since latest
+   */
+  private final Map<String, World> worlds = new HashMap<>();
+
+  /**
+   * The last size sent to each world's border
+   *
+   * @since latest
+   */
+  private final Map<String, Double> sentSizes = new HashMap<>();
+
+  /**
+   * If an update has been requested but not run yet
+   *
+   * @since latest
+   */
+  private boolean dirty = false;
+
+  /**
+   * Creates a new updater, registers it as a {@link Listener} and reads its settings from the config
+   *
+   * @param plugin The current plugin
+   * @author sh0ckR6
+   * @since latest
+   */
+  public BorderUpdater(AchievementBorder plugin) {
+    this.plugin = plugin;
+    plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    loadSettings();
+  }
+
+  /**
+   * Read the border worlds from the config and compile the growth formula, resolve the worlds, and resend every
+   * border on the next update. Any configured world that isn't loaded is reported once.<br>
+   * Must be called again whenever the advancement catalog is rebuilt, since weights are assigned by ordinal.
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void loadSettings() {
+    Configuration config = ConfigManager.getConfig(ConfigKeys.CONFIG);
+    ConfigurationSection section = config.yamlConfig.getConfigurationSection("borders");
+    Map<String, Boolean> borders = new LinkedHashMap<>();
+    if (section != null) {
+      for (String worldName : section.getKeys(false)) {
+        borders.put(worldName, section.getBoolean(worldName));
+      }
+    }
+    this.borders = borders;
+    this.formula = GrowthFormula.compile(plugin.catalog, config.yamlConfig.getConfigurationSection("growth"), ConfigKeys.STARTING_SIZE.get());
+    plugin.advancements.setWeights(formula.getWeights());
+    
+    worlds.clear();
+    for (String worldName : borders.keySet()) {
+      World world = Bukkit.getWorld(worldName);
+      if (world == null) {
+        // If we couldn't get the world, log it. It is picked up later if it gets loaded.
+        Bukkit.getLogger().severe("Invalid world name found in 'config.yml/borders': " + worldName);
+        continue;
+      }
+      worlds.put(worldName, world);
+    }
+    
+    resendAll();
+  }
+  
+  /**
+   * Starts tracking a configured world once it is loaded
+   *
+   * @param event The {@link WorldLoadEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler
+  public void onWorldLoad(WorldLoadEvent event) {
+    String worldName = event.getWorld().getName();
+    if (!borders.containsKey(worldName)) return;
+    worlds.put(worldName, event.getWorld());
+    sentSizes.remove(worldName);
+    markDirty();
+  }
+  
+  /**
+   * Stops tracking a configured world once it is unloaded
+   *
+   * @param event The {@link WorldUnloadEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onWorldUnload(WorldUnloadEvent event) {
+    worlds.remove(event.getWorld().getName());
+    sentSizes.remove(event.getWorld().getName());
+  }
+
+  /**
+   * Request a border update. The update runs once on the next tick, no matter how often this is called.
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void markDirty() {
+    if (dirty) return;
+    dirty = true;
+    Bukkit.getScheduler().runTask(plugin, this::update);
+  }
+
+  /**
+   * Resend every border on the next update, even if its size hasn't changed, for example after a border was moved
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void resendAll() {
+    sentSizes.clear();
+    markDirty();
+  }
+
+  /**
+   * Check if a world's border is controlled by the plugin
+   *
+   * @param world The world
+   * @return True if the world's border is enabled in {@code config.yml/borders}
+   * @author sh0ckR6
+   * @since latest
+   */
+  public boolean isBordered(World world) {
+    return borders.getOrDefault(world.getName(), false);
+  }
+
+  /**
+   * @return The size every enabled border should currently have
+   * @author sh0ckR6
+   * @since latest
+   */
+  public double getTargetSize() {
+    return formula.sizeAt(plugin.advancements.getTotalWeight());
+  }
+  
+  /**
+   * @return The compiled growth formula
+   * @author sh0ckR6
+   * @since latest
+   */
+  public GrowthFormula getFormula() {
+    return formula;
+  }
+
+  /**
+   * Update the border of every configured world whose target size has changed
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void update() {
+    dirty = false;
+    double targetSize = getTargetSize();
+    for (Map.Entry<String, Boolean> entry : borders.entrySet()) {
+      String worldName = entry.getKey();
+      double size = entry.getValue() ? targetSize : DISABLED_SIZE;
+      Double sentSize = sentSizes.get(worldName);
+      if (sentSize != null && sentSize == size) continue;
+
+      World world = worlds.get(worldName);
+      if (world == null) continue;
+      world.getWorldBorder().setSize(size, 1);
+      sentSizes.put(worldName, size);
+      Bukkit.getPluginManager().callEvent(new BorderChangeEvent(world, sentSize == null ? Double.NaN : sentSize, size));
+    }
+  }
+}
@@ -0,0 +1,382 @@
+package com.github.sh0ckr6.achievementborder.border;
+
+import com.github.sh0ckr6.achievementborder.AchievementBorder;
+import com.github.sh0ckr6.achievementborder.managers.ConfigKeys;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates the chunks the border is about to grow into before players get there.<br><br>
+ *
+ * Whenever a world's border changes, the next few growth steps are predicted with the {@link GrowthFormula} and every
+ * chunk in the ring between the current and the predicted border is queued. Queued chunks are checked and, if they
+ * haven't been generated yet, generated in the background with Paper's asynchronous chunk API, with a limit on how many
+ * are in flight at once. Nothing is checked on the main thread, since that could mean reading region files from disk.
+ * Requests are paused while the server's average tick time is above {@code pregeneration.max-mspt}.
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+public class ChunkPregenerator implements Listener {
+
+  /**
+   * Pregeneration progress for a single world
+   *
+   * @since latest
+   */
+  public static class Job {
+    /**
+     * Chunks still waiting to be checked, encoded with {@link Chunk#getChunkKey(int, int)}, nearest to the center first
+     *
+     * @since latest
+     */
+    private final Deque<Long> queue = new ArrayDeque<>();
+    /**
+     * Number of chunks queued when this job was last (re)planned
+     *
+     * @since latest
+     */
+    private int planned = 0;
+    /**
+     * Number of chunks checked since this job was last (re)planned, whether or not they had to be generated
+     *
+     * @since latest
+     */
+    private int checked = 0;
+    /**
+     * Number of chunks generated since this job was last (re)planned
+     *
+     * @since latest
+     */
+    private int generated = 0;
+    /**
+     * The border size this job is generating for
+     *
+     * @since latest
+     */
+    private double predictedSize = 0;
+
+    /**
+     * @return Number of chunks still waiting to be checked
+     * @since latest
+     */
+    public int getRemaining() {
+      return queue.size();
+    }
+
+    /**
+     * @return Number of chunks queued when this job was last planned
+     * @since latest
+     */
+    public int getPlanned() {
+      return planned;
+    }
+
+    /**
+     * @return Number of chunks checked since this job was last planned, whether or not they had to be generated
+     * @since latest
+     */
+    public int getChecked() {
+      return checked;
+    }
+
+    /**
+     * @return Number of chunks generated since this job was last planned
+     * @since latest
+     */
+    public int getGenerated() {
+      return generated;
+    }
+
+    /**
+     * @return The border size this job is generating for
+     * @since latest
+     */
+    public double getPredictedSize() {
+      return predictedSize;
+    }
+  }
+
+  /**
+   * Reference to the plugin
+   *
+   * @since latest
+   */
+  private final AchievementBorder plugin;
+
+  /**
+   * Pregeneration jobs by world name
+   *
+   * @since latest
+   */
+  private final Map<String, Job> jobs = new LinkedHashMap<>();
+
+  /**
+   * Number of chunk requests that haven't completed yet
+   *
+   * @since latest
+   */
+  private int inFlight = 0;
+
+  /**
+   * Total number of chunks generated since the plugin was enabled
+   *
+   * @since latest
+   */
+  private long totalGenerated = 0;
+
+  /**
+   * Number of ticks generation was paused because the server was lagging
+   *
+   * @since latest
+   */
+  private long throttledTicks = 0;
+
+  /**
+   * If pregeneration is turned on
+   *
+   * @since latest
+   */
+  private boolean enabled;
+
+  /**
+   * How many advancements ahead of the current border to generate for
+   *
+   * @since latest
+   */
+  private int lookahead;
+
+  /**
+   * Maximum number of chunk requests in flight at once
+   *
+   * @since latest
+   */
+  private int maxConcurrent;
+
+  /**
+   * Average tick time (in milliseconds) above which generation is paused
+   *
+   * @since latest
+   */
+  private double maxMspt;
+
+  /**
+   * Maximum number of chunks queued for a single world
+   *
+   * @since latest
+   */
+  private int maxChunks;
+
+  /**
+   * Creates a new pregenerator, registers it as a {@link Listener} and starts its generation task
+   *
+   * @param plugin The current plugin
+   * @author sh0ckR6
+   * @since latest
+   */
+  public ChunkPregenerator(AchievementBorder plugin) {
+    this.plugin = plugin;
+    plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    loadSettings();
+    Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1, 1);
+  }
+
+  /**
+   * Read the pregeneration settings from the config
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void loadSettings() {
+    enabled = ConfigKeys.PREGENERATION_ENABLED.get();
+    lookahead = ConfigKeys.PREGENERATION_LOOKAHEAD.get();
+    maxConcurrent = ConfigKeys.PREGENERATION_MAX_CONCURRENT.get();
+    maxMspt = ConfigKeys.PREGENERATION_MAX_MSPT.get();
+    maxChunks = ConfigKeys.PREGENERATION_MAX_CHUNKS.get();
+    if (!enabled) jobs.clear();
+  }
+
+  /**
+   * Plan pregeneration whenever a border changes
+   *
+   * @param event The {@link BorderChangeEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler
+  public void onBorderChange(BorderChangeEvent event) {
+    plan(event.getWorld(), event.getSize());
+  }
+
+  /**
+   * Plan pregeneration for a world whose border has just changed.
+   * Any chunks still queued for the world from a previous plan are replaced.
+   *
+   * @param world The world whose border changed
+   * @param size The new size of the world's border
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void plan(World world, double size) {
+    if (!enabled || size >= BorderUpdater.DISABLED_SIZE) {
+      jobs.remove(world.getName());
+      return;
+    }
+
+    GrowthFormula formula = plugin.borderUpdater.getFormula();
+    double predictedSize = formula.sizeAt(plugin.advancements.getTotalWeight() + Math.round(lookahead * formula.getAverageWeight()));
+
+    Location center = world.getWorldBorder().getCenter();
+    double radius = Math.max(size, predictedSize) / 2;
+    int minX = (int) Math.floor((center.getX() - radius) / 16);
+    int maxX = (int) Math.floor((center.getX() + radius) / 16);
+    int minZ = (int) Math.floor((center.getZ() - radius) / 16);
+    int maxZ = (int) Math.floor((center.getZ() + radius) / 16);
+    int centerX = center.getBlockX() >> 4;
+    int centerZ = center.getBlockZ() >> 4;
+
+    // Chunks entirely inside the current border have already been reachable, so only the ring outside it is queued.
+    // Whether a chunk is generated is only checked once it is requested, off the main thread.
+    double currentRadius = size / 2;
+    int innerMinX = (int) Math.ceil((center.getX() - currentRadius) / 16);
+    int innerMaxX = (int) Math.floor((center.getX() + currentRadius) / 16) - 1;
+    int innerMinZ = (int) Math.ceil((center.getZ() - currentRadius) / 16);
+    int innerMaxZ = (int) Math.floor((center.getZ() + currentRadius) / 16) - 1;
+
+    List<Long> chunks = new ArrayList<>();
+    for (int x = minX; x <= maxX; x++) {
+      for (int z = minZ; z <= maxZ; z++) {
+        if (x >= innerMinX && x <= innerMaxX && z >= innerMinZ && z <= innerMaxZ) continue;
+        chunks.add(Chunk.getChunkKey(x, z));
+      }
+    }
+    // Generate from the center outwards, since that's where players will reach first
+    chunks.sort(Comparator.comparingInt(key -> Math.max(Math.abs(chunkX(key) - centerX), Math.abs(chunkZ(key) - centerZ))));
+    if (chunks.size() > maxChunks) chunks = chunks.subList(0, maxChunks);
+
+    Job job = new Job();
+    job.queue.addAll(chunks);
+    job.planned = chunks.size();
+    job.predictedSize = predictedSize;
+    if (chunks.isEmpty()) {
+      jobs.remove(world.getName());
+    } else {
+      jobs.put(world.getName(), job);
+    }
+  }
+
+  /**
+   * Start chunk requests until the concurrency limit is reached, unless the server is lagging
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void tick() {
+    if (jobs.isEmpty() || inFlight >= maxConcurrent) return;
+    if (Bukkit.getAverageTickTime() > maxMspt) {
+      throttledTicks++;
+      return;
+    }
+
+    for (Map.Entry<String, Job> entry : new ArrayList<>(jobs.entrySet())) {
+      World world = Bukkit.getWorld(entry.getKey());
+      Job job = entry.getValue();
+      if (world == null) {
+        jobs.remove(entry.getKey());
+        continue;
+      }
+
+      while (inFlight < maxConcurrent && !job.queue.isEmpty()) {
+        long key = job.queue.poll();
+        int x = chunkX(key);
+        int z = chunkZ(key);
+        inFlight++;
+        // Look for the chunk without generating it first, which is a cheap miss for chunks that don't exist yet
+        world.getChunkAtAsync(x, z, false).whenComplete((existing, throwable) -> {
+          if (throwable != null || existing != null) {
+            inFlight--;
+            if (throwable == null) job.checked++;
+            return;
+          }
+          world.getChunkAtAsync(x, z, true).whenComplete((chunk, error) -> {
+            inFlight--;
+            if (error != null) return;
+            job.checked++;
+            job.generated++;
+            totalGenerated++;
+          });
+        });
+      }
+      if (job.queue.isEmpty()) jobs.remove(entry.getKey());
+      if (inFlight >= maxConcurrent) return;
+    }
+  }
+
+  /**
+   * @return Pregeneration jobs that still have chunks queued, by world name
+   * @author sh0ckR6
+   * @since latest
+   */
+  public Map<String, Job> getJobs() {
+    return jobs;
+  }
+
+  /**
+   * @return Number of chunk requests that haven't completed yet
+   * @author sh0ckR6
+   * @since latest
+   */
+  public int getInFlight() {
+    return inFlight;
+  }
+
+  /**
+   * @return Total number of chunks generated since the plugin was enabled
+   * @author sh0ckR6
+   * @since latest
+   */
+  public long getTotalGenerated() {
+    return totalGenerated;
+  }
+
+  /**
+   * @return Number of ticks generation was paused because the server was lagging
+   * @author sh0ckR6
+   * @since latest
+   */
+  public long getThrottledTicks() {
+    return throttledTicks;
+  }
+
+  /**
+   * @param key A key created by {@link Chunk#getChunkKey(int, int)}
+   * @return The chunk's x coordinate
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static int chunkX(long key) {
+    return (int) key;
+  }
+
+  /**
+   * @param key A key created by {@link Chunk#getChunkKey(int, int)}
+   * @return The chunk's z coordinate
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static int chunkZ(long key) {
+    return (int) (key >> 32);
+  }
+}
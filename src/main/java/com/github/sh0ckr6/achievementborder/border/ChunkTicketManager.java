@@ -0,0 +1,183 @@
+package com.github.sh0ckr6.achievementborder.border;
+
+import com.github.sh0ckr6.achievementborder.AchievementBorder;
+import com.github.sh0ckr6.achievementborder.managers.ConfigKeys;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Manages which chunks stay loaded in bordered worlds.<br><br>
+ *
+ * While a world's border is small, keeping the vanilla spawn area loaded and ticking is mostly wasted work. Instead,
+ * {@code keep-spawn-in-memory} is turned off and the plugin holds a chunk ticket for every chunk that overlaps the
+ * border, updating the tickets as the border grows. Once the border covers more than {@code chunk-tickets.max-chunks}
+ * chunks the tickets are released and the world's original spawn setting is restored.
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+public class ChunkTicketManager implements Listener {
+
+  /**
+   * Reference to the plugin
+   *
+   * @since latest
+   */
+  private final AchievementBorder plugin;
+
+  /**
+   * Chunks the plugin wants to hold a ticket for, by world name
+   *
+   * @since latest
+   */
+  private final Map<String, Set<Long>> tickets = new HashMap<>();
+
+  /**
+   * The {@code keep-spawn-in-memory} setting of every managed world before the plugin changed it
+   *
+   * @since latest
+   */
+  private final Map<String, Boolean> originalKeepSpawn = new HashMap<>();
+
+  /**
+   * If chunk loading is being managed
+   *
+   * @since latest
+   */
+  private boolean enabled;
+
+  /**
+   * Largest number of chunks a border may cover before management is handed back to the server
+   *
+   * @since latest
+   */
+  private int maxChunks;
+
+  /**
+   * Creates a new ticket manager, registers it as a {@link Listener} and reads its settings from the config
+   *
+   * @param plugin The current plugin
+   * @author sh0ckR6
+   * @since latest
+   */
+  public ChunkTicketManager(AchievementBorder plugin) {
+    this.plugin = plugin;
+    plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    loadSettings();
+  }
+
+  /**
+   * Read the chunk ticket settings from the config. Tickets are recomputed the next time each border changes.
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void loadSettings() {
+    enabled = ConfigKeys.CHUNK_TICKETS_ENABLED.get();
+    maxChunks = ConfigKeys.CHUNK_TICKETS_MAX_CHUNKS.get();
+    if (!enabled) releaseAll();
+  }
+
+  /**
+   * Update the tickets of a world whose border has changed
+   *
+   * @param event The {@link BorderChangeEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler
+  public void onBorderChange(BorderChangeEvent event) {
+    World world = event.getWorld();
+    if (!enabled || event.isDisabled()) {
+      release(world);
+      return;
+    }
+
+    int[] range = event.getBounds().chunkRange();
+    long chunkCount = (long) (range[2] - range[0] + 1) * (range[3] - range[1] + 1);
+    if (chunkCount > maxChunks) {
+      release(world);
+      return;
+    }
+
+    if (!originalKeepSpawn.containsKey(world.getName())) {
+      originalKeepSpawn.put(world.getName(), world.getKeepSpawnInMemory());
+      world.setKeepSpawnInMemory(false);
+    }
+
+    Set<Long> wanted = new HashSet<>();
+    for (int x = range[0]; x <= range[2]; x++) {
+      for (int z = range[1]; z <= range[3]; z++) {
+        wanted.add(Chunk.getChunkKey(x, z));
+      }
+    }
+
+    Set<Long> held = tickets.computeIfAbsent(world.getName(), name -> new HashSet<>());
+    for (Iterator<Long> it = held.iterator(); it.hasNext(); ) {
+      long key = it.next();
+      if (wanted.contains(key)) continue;
+      world.removePluginChunkTicket((int) key, (int) (key >> 32), plugin);
+      it.remove();
+    }
+    for (long key : wanted) {
+      if (!held.add(key)) continue;
+      // Load the chunk in the background first, so adding the ticket never loads or generates it on the main thread
+      world.getChunkAtAsync((int) key, (int) (key >> 32)).thenAccept(chunk -> {
+        if (held == tickets.get(world.getName()) && held.contains(key)) chunk.addPluginChunkTicket(plugin);
+      });
+    }
+  }
+
+  /**
+   * Release every ticket in a world and restore its original spawn setting
+   *
+   * @param world The world to release
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void release(World world) {
+    tickets.remove(world.getName());
+    world.removePluginChunkTickets(plugin);
+    Boolean keepSpawn = originalKeepSpawn.remove(world.getName());
+    if (keepSpawn != null) world.setKeepSpawnInMemory(keepSpawn);
+  }
+
+  /**
+   * Release every ticket in every world and restore their original spawn settings, for example when the plugin is
+   * disabled
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void releaseAll() {
+    for (String worldName : new HashSet<>(originalKeepSpawn.keySet())) {
+      World world = Bukkit.getWorld(worldName);
+      if (world != null) {
+        release(world);
+      } else {
+        originalKeepSpawn.remove(worldName);
+        tickets.remove(worldName);
+      }
+    }
+  }
+
+  /**
+   * @return Number of chunk tickets held across every world
+   * @author sh0ckR6
+   * @since latest
+   */
+  public int getTicketCount() {
+    int count = 0;
+    for (Set<Long> held : tickets.values()) count += held.size();
+    return count;
+  }
+}
@@ -0,0 +1,524 @@
+package com.github.sh0ckr6.achievementborder.border;
+
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import com.github.sh0ckr6.achievementborder.AchievementBorder;
+import com.github.sh0ckr6.achievementborder.managers.ConfigKeys;
+import com.github.sh0ckr6.achievementborder.util.ChunkSweep;
+import com.github.sh0ckr6.achievementborder.util.LongLongHashMap;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.ExperienceOrb;
+import org.bukkit.entity.Item;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntitySpawnEvent;
+import org.bukkit.event.entity.ItemMergeEvent;
+import org.bukkit.event.entity.ItemSpawnEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps the number of dropped items and experience orbs in bordered worlds in check.<br><br>
+ *
+ * Every item and orb in a bordered world is kept in a grid of {@code drops.cell-size} block cells, updated from spawn,
+ * merge, removal and chunk load events rather than by scanning entities. The drops already in loaded chunks when a
+ * world starts being tracked are added by a short sweep over those chunks, a few at a time. Once a world holds more
+ * drops than its threshold ({@code drops.per-block} for every square block inside the border, but at least
+ * {@code drops.min}), new drops are merged into a matching drop in the same or a neighbouring cell instead of being
+ * spawned, regardless of vanilla's merge radius. Drops that have moved since they were filed are filed again under
+ * their current cell before they are merged into.
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+public class DropDensityManager implements Listener {
+
+  /**
+   * The drops of a single world
+   *
+   * @since latest
+   */
+  private static class DropGrid {
+    /**
+     * Drops by the key of the cell they were last filed in
+     *
+     * @since latest
+     */
+    private final Map<Long, List<Entity>> cells = new HashMap<>();
+
+    /**
+     * The key of the cell each drop was last filed in, by entity ID
+     *
+     * @since latest
+     */
+    private final LongLongHashMap entityCells = new LongLongHashMap();
+
+    /**
+     * Adds the drops that were already loaded when the world started being tracked, null once it has finished
+     *
+     * @since latest
+     */
+    private ChunkSweep seeder;
+
+    /**
+     * Number of drops above which new drops are merged
+     *
+     * @since latest
+     */
+    private int threshold;
+
+    /**
+     * @param threshold Number of drops above which new drops are merged
+     * @since latest
+     */
+    private DropGrid(int threshold) {
+      this.threshold = threshold;
+    }
+
+    /**
+     * @return True if the world holds more drops than its threshold
+     * @since latest
+     */
+    private boolean isCrowded() {
+      return entityCells.size() > threshold;
+    }
+  }
+
+  /**
+   * Number of loaded chunks checked per tick for drops when a world starts being tracked
+   *
+   * @since latest
+   */
+  private static final int SEED_CHUNKS_PER_TICK = 16;
+
+  /**
+   * Reference to the plugin
+   *
+   * @since latest
+   */
+  private final AchievementBorder plugin;
+
+  /**
+   * Drops of every bordered world, by world
+   *
+   * @since latest
+   */
+  private final Map<UUID, DropGrid> grids = new HashMap<>();
+
+  /**
+   * If drops are being managed
+   *
+   * @since latest
+   */
+  private boolean enabled;
+
+  /**
+   * Drops allowed per square block inside the border before merging starts
+   *
+   * @since latest
+   */
+  private double perBlock;
+
+  /**
+   * Drops allowed in any bordered world before merging starts
+   *
+   * @since latest
+   */
+  private int minDrops;
+
+  /**
+   * Width of a grid cell, in blocks, as a power of two shift
+   *
+   * @since latest
+   */
+  private int cellShift;
+
+  /**
+   * Number of items merged into an existing stack instead of being spawned
+   *
+   * @since latest
+   */
+  private long mergedItems = 0;
+
+  /**
+   * Number of experience orbs merged into an existing orb instead of being spawned
+   *
+   * @since latest
+   */
+  private long mergedOrbs = 0;
+
+  /**
+   * Creates a new manager, registers it as a {@link Listener} and reads its settings from the config
+   *
+   * @param plugin The current plugin
+   * @author sh0ckR6
+   * @since latest
+   */
+  public DropDensityManager(AchievementBorder plugin) {
+    this.plugin = plugin;
+    plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    loadSettings();
+    Bukkit.getScheduler().runTaskTimer(plugin, this::seed, 1, 1);
+  }
+
+  /**
+   * Read the drop settings from the config. Thresholds are recomputed the next time each border changes.
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void loadSettings() {
+    enabled = ConfigKeys.DROPS_ENABLED.get();
+    perBlock = ConfigKeys.DROPS_PER_BLOCK.get();
+    minDrops = ConfigKeys.DROPS_MIN.get();
+    int cellSize = ConfigKeys.DROPS_CELL_SIZE.get();
+    // Round the cell size to a power of two, so cells can be found with a shift
+    cellShift = 31 - Integer.numberOfLeadingZeros(Math.max(1, cellSize));
+    // Drops are filed by cell, so a new cell size means starting over
+    grids.clear();
+  }
+
+  /**
+   * Start or stop tracking a world's drops when its border changes, and recompute its threshold
+   *
+   * @param event The {@link BorderChangeEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler
+  public void onBorderChange(BorderChangeEvent event) {
+    UUID world = event.getWorld().getUID();
+    if (!enabled || event.isDisabled()) {
+      grids.remove(world);
+      return;
+    }
+    int threshold = (int) Math.max(minDrops, event.getBounds().area() * perBlock);
+    grids.computeIfAbsent(world, uid -> {
+      DropGrid grid = new DropGrid(threshold);
+      grid.seeder = new ChunkSweep(candidate -> candidate.getUID().equals(uid), SEED_CHUNKS_PER_TICK, (seeded, chunk) -> {
+        for (Entity entity : chunk.getEntities()) {
+          if (entity instanceof Item || entity instanceof ExperienceOrb) track(grid, entity);
+        }
+      });
+      return grid;
+    }).threshold = threshold;
+  }
+
+  /**
+   * Add a few more of the drops that were already loaded to every grid that is still being seeded
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void seed() {
+    for (DropGrid grid : grids.values()) {
+      if (grid.seeder == null) continue;
+      grid.seeder.tick();
+      if (grid.seeder.getCompletedCycles() > 0) grid.seeder = null;
+    }
+  }
+
+  /**
+   * Merge a new item into nearby stacks if the world is crowded. Whatever is left is tracked once the spawn goes through.
+   *
+   * @param event The {@link ItemSpawnEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+  public void onItemSpawn(ItemSpawnEvent event) {
+    Item item = event.getEntity();
+    DropGrid grid = grids.get(item.getWorld().getUID());
+    if (grid == null) return;
+
+    if (grid.isCrowded()) {
+      ItemStack stack = item.getItemStack();
+      for (Entity candidate : nearby(grid, item.getLocation())) {
+        if (!(candidate instanceof Item target)) continue;
+        ItemStack targetStack = target.getItemStack();
+        if (!targetStack.isSimilar(stack)) continue;
+        int moved = Math.min(stack.getAmount(), targetStack.getMaxStackSize() - targetStack.getAmount());
+        if (moved <= 0) continue;
+        targetStack.setAmount(targetStack.getAmount() + moved);
+        target.setItemStack(targetStack);
+        stack.setAmount(stack.getAmount() - moved);
+        if (stack.getAmount() == 0) {
+          event.setCancelled(true);
+          mergedItems++;
+          return;
+        }
+      }
+      item.setItemStack(stack);
+    }
+  }
+
+  /**
+   * Merge a new experience orb into a nearby orb if the world is crowded. Otherwise it is tracked once the spawn goes
+   * through.
+   *
+   * @param event The {@link EntitySpawnEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+  public void onEntitySpawn(EntitySpawnEvent event) {
+    if (!(event.getEntity() instanceof ExperienceOrb orb)) return;
+    DropGrid grid = grids.get(orb.getWorld().getUID());
+    if (grid == null) return;
+
+    if (grid.isCrowded()) {
+      for (Entity candidate : nearby(grid, orb.getLocation())) {
+        if (!(candidate instanceof ExperienceOrb target)) continue;
+        target.setExperience(target.getExperience() + orb.getExperience());
+        event.setCancelled(true);
+        mergedOrbs++;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Start tracking a new item or experience orb once its spawn has gone through, so spawns cancelled by this or any
+   * other plugin are never counted
+   *
+   * @param event The {@link EntitySpawnEvent} passed to this function automatically, including item spawns
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onDropSpawned(EntitySpawnEvent event) {
+    Entity entity = event.getEntity();
+    if (!(entity instanceof Item) && !(entity instanceof ExperienceOrb)) return;
+    DropGrid grid = grids.get(entity.getWorld().getUID());
+    if (grid != null) track(grid, entity);
+  }
+
+  /**
+   * Stop tracking an item once vanilla merges it into another
+   *
+   * @param event The {@link ItemMergeEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onItemMerge(ItemMergeEvent event) {
+    untrack(event.getEntity());
+  }
+
+  /**
+   * Stop tracking a drop once it is picked up or otherwise removed
+   *
+   * @param event The {@link EntityRemoveFromWorldEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler
+  public void onEntityRemoveFromWorld(EntityRemoveFromWorldEvent event) {
+    untrack(event.getEntity());
+  }
+
+  /**
+   * Track the drops loaded with a chunk
+   *
+   * @param event The {@link EntitiesLoadEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler
+  public void onEntitiesLoad(EntitiesLoadEvent event) {
+    DropGrid grid = grids.get(event.getWorld().getUID());
+    if (grid == null) return;
+    for (Entity entity : event.getEntities()) {
+      if (entity instanceof Item || entity instanceof ExperienceOrb) track(grid, entity);
+    }
+  }
+
+  /**
+   * Stop tracking the drops unloaded with a chunk
+   *
+   * @param event The {@link EntitiesUnloadEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler
+  public void onEntitiesUnload(EntitiesUnloadEvent event) {
+    for (Entity entity : event.getEntities()) {
+      untrack(entity);
+    }
+  }
+
+  /**
+   * Forget the drops of a world when it is unloaded
+   *
+   * @param event The {@link WorldUnloadEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onWorldUnload(WorldUnloadEvent event) {
+    grids.remove(event.getWorld().getUID());
+  }
+
+  /**
+   * Helper function to get the tracked drops in the cell of a location and the eight cells around it
+   *
+   * @param grid The world's drops
+   * @param location The location
+   * @return The drops, nearest cell first
+   * @author sh0ckR6
+   * @since latest
+   */
+  private List<Entity> nearby(DropGrid grid, Location location) {
+    int cellX = location.getBlockX() >> cellShift;
+    int cellZ = location.getBlockZ() >> cellShift;
+    // File any drop that has moved under its current cell first, so only drops that are actually nearby are returned
+    for (int dx = -1; dx <= 1; dx++) {
+      for (int dz = -1; dz <= 1; dz++) {
+        refreshCell(grid, cellKey(cellX + dx, cellZ + dz));
+      }
+    }
+
+    List<Entity> drops = new ArrayList<>();
+    addCell(grid, cellKey(cellX, cellZ), drops);
+    for (int dx = -1; dx <= 1; dx++) {
+      for (int dz = -1; dz <= 1; dz++) {
+        if (dx != 0 || dz != 0) addCell(grid, cellKey(cellX + dx, cellZ + dz), drops);
+      }
+    }
+    return drops;
+  }
+
+  /**
+   * Helper function to forget the drops of a cell that were removed without an event, and file the ones that have
+   * been carried away by water, explosions or pistons under the cell they are in now
+   *
+   * @param grid The world's drops
+   * @param cellKey The cell's key
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void refreshCell(DropGrid grid, long cellKey) {
+    List<Entity> cell = grid.cells.get(cellKey);
+    if (cell == null) return;
+    cell.removeIf(drop -> {
+      if (!drop.isValid()) {
+        grid.entityCells.remove(drop.getEntityId());
+        return true;
+      }
+      long currentKey = cellOf(drop.getLocation());
+      if (currentKey == cellKey) return false;
+      grid.entityCells.put(drop.getEntityId(), currentKey);
+      grid.cells.computeIfAbsent(currentKey, key -> new ArrayList<>()).add(drop);
+      return true;
+    });
+    if (cell.isEmpty()) grid.cells.remove(cellKey);
+  }
+
+  /**
+   * Helper function to collect the drops of a cell
+   *
+   * @param grid The world's drops
+   * @param cellKey The cell's key
+   * @param drops The list to add the cell's drops to
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void addCell(DropGrid grid, long cellKey, List<Entity> drops) {
+    List<Entity> cell = grid.cells.get(cellKey);
+    if (cell != null) drops.addAll(cell);
+  }
+
+  /**
+   * Helper function to start tracking a drop
+   *
+   * @param grid The world's drops
+   * @param entity The drop
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void track(DropGrid grid, Entity entity) {
+    if (grid.entityCells.containsKey(entity.getEntityId())) return;
+    long cellKey = cellOf(entity.getLocation());
+    grid.entityCells.put(entity.getEntityId(), cellKey);
+    grid.cells.computeIfAbsent(cellKey, key -> new ArrayList<>()).add(entity);
+  }
+
+  /**
+   * Helper function to stop tracking a drop, if it is tracked
+   *
+   * @param entity The drop
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void untrack(Entity entity) {
+    if (!(entity instanceof Item) && !(entity instanceof ExperienceOrb)) return;
+    DropGrid grid = grids.get(entity.getWorld().getUID());
+    if (grid == null || !grid.entityCells.containsKey(entity.getEntityId())) return;
+    long cellKey = grid.entityCells.remove(entity.getEntityId());
+    List<Entity> cell = grid.cells.get(cellKey);
+    if (cell == null) return;
+    cell.removeIf(drop -> drop.getEntityId() == entity.getEntityId());
+    if (cell.isEmpty()) grid.cells.remove(cellKey);
+  }
+
+  /**
+   * @param location A location
+   * @return The key of the cell the location is in
+   * @author sh0ckR6
+   * @since latest
+   */
+  private long cellOf(Location location) {
+    return cellKey(location.getBlockX() >> cellShift, location.getBlockZ() >> cellShift);
+  }
+
+  /**
+   * @param cellX The cell's x coordinate
+   * @param cellZ The cell's z coordinate
+   * @return The cell's key
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static long cellKey(int cellX, int cellZ) {
+    return ((long) cellZ << 32) | (cellX & 0xFFFFFFFFL);
+  }
+
+  /**
+   * @param world The world
+   * @return Number of drops tracked in the world
+   * @author sh0ckR6
+   * @since latest
+   */
+  public int getDropCount(World world) {
+    DropGrid grid = grids.get(world.getUID());
+    return grid == null ? 0 : grid.entityCells.size();
+  }
+
+  /**
+   * @return Number of items merged into an existing stack instead of being spawned
+   * @author sh0ckR6
+   * @since latest
+   */
+  public long getMergedItems() {
+    return mergedItems;
+  }
+
+  /**
+   * @return Number of experience orbs merged into an existing orb instead of being spawned
+   * @author sh0ckR6
+   * @since latest
+   */
+  public long getMergedOrbs() {
+    return mergedOrbs;
+  }
+}
@@ -0,0 +1,196 @@
+package com.github.sh0ckr6.achievementborder.border;
+
+import com.github.sh0ckr6.achievementborder.advancements.AdvancementCatalog;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Map;
+
+/**
+ * Compiled form of the {@code growth} section in {@code config.yml}, turning the total weight of the shared
+ * advancements into a border size.<br><br>
+ *
+ * Every advancement in the catalog is given a weight: its entry in {@code growth.advancements} if present, otherwise
+ * its category's entry in {@code growth.categories}, otherwise {@code growth.per-advancement}. The border grows one
+ * block per point of weight until {@code growth.diminishing-after} points, after which the remaining points only
+ * count as {@code (points - diminishing-after) ^ diminishing-exponent} blocks. The result is capped at
+ * {@code growth.max-size}.<br><br>
+ *
+ * With the defaults every advancement is worth 5 blocks, which matches how the border always used to grow.<br><br>
+ *
+ * The formula is compiled once into a lookup table indexed by total weight, so {@link #sizeAt(long)} is a single
+ * array read.
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+public final class GrowthFormula {
+
+  /**
+   * Largest lookup table that will be built. Catalogs with a higher total weight are evaluated directly instead.
+   *
+   * @since latest
+   */
+  private static final int MAX_TABLE_SIZE = 1 << 20;
+
+  /**
+   * The weight of each advancement, indexed by catalog ordinal
+   *
+   * @since latest
+   */
+  private final int[] weights;
+
+  /**
+   * Border size by total weight, or null if the total weight of the catalog is too large for a table
+   *
+   * @since latest
+   */
+  private final double[] table;
+
+  /**
+   * Border size with no advancements completed
+   *
+   * @since latest
+   */
+  private final double startingSize;
+
+  /**
+   * Points of weight after which growth starts to diminish, or a negative number if it never does
+   *
+   * @since latest
+   */
+  private final long diminishingAfter;
+
+  /**
+   * Exponent applied to points past {@link #diminishingAfter}
+   *
+   * @since latest
+   */
+  private final double diminishingExponent;
+
+  /**
+   * Largest size the border may grow to
+   *
+   * @since latest
+   */
+  private final double maxSize;
+
+  /**
+   * Average weight of an advancement in the catalog
+   *
+   * @since latest
+   */
+  private final double averageWeight;
+
+  /**
+   * Creates a new formula from already-resolved settings and builds its lookup table
+   *
+   * @param weights The weight of each advancement, indexed by catalog ordinal
+   * @param startingSize Border size with no advancements completed
+   * @param diminishingAfter Points of weight after which growth starts to diminish, negative to never diminish
+   * @param diminishingExponent Exponent applied to points past {@code diminishingAfter}
+   * @param maxSize Largest size the border may grow to
+   * @author sh0ckR6
+   * @since latest
+   */
+  private GrowthFormula(int[] weights, double startingSize, long diminishingAfter, double diminishingExponent, double maxSize) {
+    this.weights = weights;
+    this.startingSize = startingSize;
+    this.diminishingAfter = diminishingAfter;
+    this.diminishingExponent = diminishingExponent;
+    this.maxSize = maxSize;
+
+    long totalWeight = 0;
+    for (int weight : weights) totalWeight += weight;
+    this.averageWeight = weights.length == 0 ? 0 : (double) totalWeight / weights.length;
+
+    if (totalWeight < MAX_TABLE_SIZE) {
+      table = new double[(int) totalWeight + 1];
+      for (int points = 0; points < table.length; points++) {
+        table[points] = evaluate(points);
+      }
+    } else {
+      table = null;
+    }
+  }
+
+  /**
+   * Compile the {@code growth} section of the config against a catalog
+   *
+   * @param catalog The catalog to assign weights to
+   * @param growth The {@code growth} section of the config, or null to use the defaults
+   * @param startingSize Border size with no advancements completed
+   * @return The compiled formula
+   * @author sh0ckR6
+   * @since latest
+   */
+  public static GrowthFormula compile(AdvancementCatalog catalog, ConfigurationSection growth, double startingSize) {
+    int defaultWeight = growth == null ? 5 : growth.getInt("per-advancement", 5);
+    ConfigurationSection categorySection = growth == null ? null : growth.getConfigurationSection("categories");
+    ConfigurationSection advancementSection = growth == null ? null : growth.getConfigurationSection("advancements");
+    Map<String, Object> categories = categorySection == null ? Map.of() : categorySection.getValues(false);
+    Map<String, Object> advancements = advancementSection == null ? Map.of() : advancementSection.getValues(false);
+
+    int[] weights = new int[catalog.size()];
+    for (int ordinal = 0; ordinal < weights.length; ordinal++) {
+      int weight = defaultWeight;
+      if (advancements.get(catalog.get(ordinal).getKey().toString()) instanceof Number number) {
+        weight = number.intValue();
+      } else if (categories.get(catalog.getCategory(ordinal)) instanceof Number number) {
+        weight = number.intValue();
+      }
+      weights[ordinal] = Math.max(0, weight);
+    }
+
+    long diminishingAfter = growth == null ? -1 : growth.getLong("diminishing-after", -1);
+    double diminishingExponent = growth == null ? 1 : growth.getDouble("diminishing-exponent", 1);
+    double maxSize = growth == null ? BorderUpdater.DISABLED_SIZE : growth.getDouble("max-size", BorderUpdater.DISABLED_SIZE);
+    return new GrowthFormula(weights, startingSize, diminishingAfter, diminishingExponent, maxSize);
+  }
+
+  /**
+   * Helper function to evaluate the formula without the lookup table
+   *
+   * @param points The total weight of the completed advancements
+   * @return The border size
+   * @author sh0ckR6
+   * @since latest
+   */
+  private double evaluate(long points) {
+    double growth = points;
+    if (diminishingAfter >= 0 && points > diminishingAfter) {
+      growth = diminishingAfter + Math.pow(points - diminishingAfter, diminishingExponent);
+    }
+    return Math.min(maxSize, startingSize + growth);
+  }
+
+  /**
+   * Get the border size for a total weight of completed advancements
+   *
+   * @param points The total weight of the completed advancements
+   * @return The border size
+   * @author sh0ckR6
+   * @since latest
+   */
+  public double sizeAt(long points) {
+    if (table == null) return evaluate(points);
+    return table[(int) Math.max(0, Math.min(points, table.length - 1))];
+  }
+
+  /**
+   * @return The weight of each advancement, indexed by catalog ordinal
+   * @author sh0ckR6
+   * @since latest
+   */
+  public int[] getWeights() {
+    return weights;
+  }
+
+  /**
+   * @return Average weight of an advancement in the catalog
+   * @author sh0ckR6
+   * @since latest
+   */
+  public double getAverageWeight() {
+    return averageWeight;
+  }
+}
@@ -0,0 +1,428 @@
+package com.github.sh0ckr6.achievementborder.border;
+
+import com.github.sh0ckr6.achievementborder.AchievementBorder;
+import com.github.sh0ckr6.achievementborder.managers.ConfigKeys;
+import com.github.sh0ckr6.achievementborder.managers.ConfigManager;
+import com.github.sh0ckr6.achievementborder.util.ChunkSweep;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Boss;
+import org.bukkit.entity.ElderGuardian;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.ExperienceOrb;
+import org.bukkit.entity.Ghast;
+import org.bukkit.entity.Hanging;
+import org.bukkit.entity.Hoglin;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Monster;
+import org.bukkit.entity.Phantom;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Projectile;
+import org.bukkit.entity.Raider;
+import org.bukkit.entity.Shulker;
+import org.bukkit.entity.Slime;
+import org.bukkit.entity.Tameable;
+import org.bukkit.entity.Vehicle;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Deals with entities that are outside the border of a bordered world.<br><br>
+ *
+ * Loaded chunks are visited in a round-robin {@link ChunkSweep}, {@code culling.chunks-per-tick} at a time, and every
+ * entity outside the border's cached bounds is handled by the rule for its type: removed, pushed back inside the
+ * border, or ignored. Rules are read from {@code culling.rules} (entity type to {@code remove}, {@code push} or
+ * {@code ignore}), falling back to {@code culling.hostile}, {@code culling.drops} and {@code culling.other}. Only
+ * living entities are ever pushed back, never hanging entities, vehicles or projectiles, which are left alone instead.
+ * Named and tamed entities are never removed, only pushed back. Unless they have a rule of their own, bosses are left
+ * alone and raiders are pushed back rather than removed with the other hostile mobs. Players are always pushed back,
+ * apart from players in creative or spectator mode.
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+public class OutsideBorderSweeper implements Listener {
+
+  /**
+   * What to do with an entity outside the border
+   *
+   * @since latest
+   */
+  public enum Rule {
+    /**
+     * Leave the entity where it is
+     */
+    IGNORE,
+    /**
+     * Remove the entity
+     */
+    REMOVE,
+    /**
+     * Move the entity back inside the border
+     */
+    PUSH
+  }
+
+  /**
+   * Distance to keep pushed entities from the edge of the border, in blocks
+   *
+   * @since latest
+   */
+  private static final double PUSH_MARGIN = 1;
+
+  /**
+   * Entity classes that fall under {@code culling.hostile}
+   *
+   * @since latest
+   */
+  private static final List<Class<? extends Entity>> HOSTILE_CLASSES = List.of(Monster.class, Slime.class, Ghast.class, Phantom.class, Shulker.class, Hoglin.class);
+
+  /**
+   * Reference to the plugin
+   *
+   * @since latest
+   */
+  private final AchievementBorder plugin;
+
+  /**
+   * Bounds of every bordered world, by world
+   *
+   * @since latest
+   */
+  private final Map<UUID, BorderBounds> bounds = new HashMap<>();
+
+  /**
+   * Visits loaded chunks of the bordered worlds
+   *
+   * @since latest
+   */
+  private final ChunkSweep sweep;
+
+  /**
+   * The rule for each {@link EntityType}, indexed by ordinal
+   *
+   * @since latest
+   */
+  private final Rule[] rules = new Rule[EntityType.values().length];
+
+  /**
+   * If entities of each {@link EntityType} may be pushed back inside the border, indexed by ordinal
+   *
+   * @since latest
+   */
+  private final boolean[] pushable = new boolean[EntityType.values().length];
+
+  /**
+   * If entities outside the border are being handled
+   *
+   * @since latest
+   */
+  private boolean enabled;
+
+  /**
+   * Number of chunks checked since the plugin was enabled
+   *
+   * @since latest
+   */
+  private long chunksChecked = 0;
+
+  /**
+   * Number of entities removed since the plugin was enabled
+   *
+   * @since latest
+   */
+  private long removed = 0;
+
+  /**
+   * Number of entities pushed back inside the border since the plugin was enabled
+   *
+   * @since latest
+   */
+  private long pushed = 0;
+
+  /**
+   * Total time spent sweeping since the plugin was enabled, in nanoseconds
+   *
+   * @since latest
+   */
+  private long sweepNanos = 0;
+
+  /**
+   * Number of ticks that swept at least one chunk
+   *
+   * @since latest
+   */
+  private long sweepTicks = 0;
+
+  /**
+   * Creates a new sweeper, registers it as a {@link Listener}, reads its settings from the config and starts sweeping
+   *
+   * @param plugin The current plugin
+   * @author sh0ckR6
+   * @since latest
+   */
+  public OutsideBorderSweeper(AchievementBorder plugin) {
+    this.plugin = plugin;
+    plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    sweep = new ChunkSweep(world -> bounds.containsKey(world.getUID()), 1, this::sweepChunk);
+    loadSettings();
+    Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1, 1);
+  }
+
+  /**
+   * Read the culling settings and compile the rule of every entity type
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void loadSettings() {
+    enabled = ConfigKeys.CULLING_ENABLED.get();
+    sweep.setChunksPerTick(ConfigKeys.CULLING_CHUNKS_PER_TICK.get());
+    Rule hostile = parseRule(ConfigKeys.CULLING_HOSTILE.get(), Rule.REMOVE);
+    Rule drops = parseRule(ConfigKeys.CULLING_DROPS.get(), Rule.REMOVE);
+    Rule other = parseRule(ConfigKeys.CULLING_OTHER.get(), Rule.IGNORE);
+    ConfigurationSection section = ConfigManager.getConfig(ConfigKeys.CONFIG).yamlConfig.getConfigurationSection("culling.rules");
+
+    for (EntityType type : EntityType.values()) {
+      Class<? extends Entity> entityClass = type.getEntityClass();
+      Rule rule;
+      if (isBoss(entityClass)) {
+        rule = hostile == Rule.REMOVE ? Rule.IGNORE : hostile;
+      } else if (entityClass != null && Raider.class.isAssignableFrom(entityClass)) {
+        // Removing raiders would break raids that spill over the border
+        rule = hostile == Rule.REMOVE ? Rule.PUSH : hostile;
+      } else if (isHostile(entityClass)) {
+        rule = hostile;
+      } else if (entityClass != null && (Item.class.isAssignableFrom(entityClass) || ExperienceOrb.class.isAssignableFrom(entityClass))) {
+        rule = drops;
+      } else {
+        rule = other;
+      }
+      if (section != null) rule = parseRule(section.getString(type.name()), rule);
+      pushable[type.ordinal()] = isPushable(entityClass);
+      if (rule == Rule.PUSH && !pushable[type.ordinal()]) rule = Rule.IGNORE;
+      rules[type.ordinal()] = rule;
+    }
+    // Players are only ever pushed back, whatever the config says. Creative and spectator players are skipped below.
+    rules[EntityType.PLAYER.ordinal()] = Rule.PUSH;
+    pushable[EntityType.PLAYER.ordinal()] = true;
+  }
+
+  /**
+   * Cache a world's bounds when its border changes
+   *
+   * @param event The {@link BorderChangeEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler
+  public void onBorderChange(BorderChangeEvent event) {
+    if (event.isDisabled()) {
+      bounds.remove(event.getWorld().getUID());
+    } else {
+      bounds.put(event.getWorld().getUID(), event.getBounds());
+    }
+  }
+
+  /**
+   * Forget a world's bounds when it is unloaded
+   *
+   * @param event The {@link WorldUnloadEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onWorldUnload(WorldUnloadEvent event) {
+    bounds.remove(event.getWorld().getUID());
+  }
+
+  /**
+   * Run one step of the sweep and record how long it took
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void tick() {
+    if (!enabled || bounds.isEmpty()) return;
+    long checked = chunksChecked;
+    long start = System.nanoTime();
+    sweep.tick();
+    if (chunksChecked == checked) return;
+    sweepNanos += System.nanoTime() - start;
+    sweepTicks++;
+  }
+
+  /**
+   * Handle every entity outside the border in a chunk
+   *
+   * @param world The world the chunk is in
+   * @param chunk The chunk to check
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void sweepChunk(World world, Chunk chunk) {
+    BorderBounds border = bounds.get(world.getUID());
+    if (border == null) return;
+    chunksChecked++;
+    // Nothing in a chunk entirely inside the border can be outside it
+    double blockX = chunk.getX() << 4;
+    double blockZ = chunk.getZ() << 4;
+    if (blockX >= border.minX() && blockX + 16 <= border.maxX() && blockZ >= border.minZ() && blockZ + 16 <= border.maxZ()) return;
+
+    for (Entity entity : chunk.getEntities()) {
+      Location location = entity.getLocation();
+      if (border.contains(location.getX(), location.getZ())) continue;
+      if (entity instanceof Player player && (player.getGameMode() == GameMode.CREATIVE || player.getGameMode() == GameMode.SPECTATOR)) continue;
+      Rule rule = rules[entity.getType().ordinal()];
+      // Anything a player has put effort into is only ever pushed back
+      if (rule == Rule.REMOVE && isKept(entity)) rule = pushable[entity.getType().ordinal()] ? Rule.PUSH : Rule.IGNORE;
+
+      switch (rule) {
+        case REMOVE -> {
+          entity.remove();
+          removed++;
+        }
+        case PUSH -> {
+          Location target = border.clamp(location, PUSH_MARGIN);
+          int targetX = target.getBlockX();
+          int targetZ = target.getBlockZ();
+          if (world.isChunkLoaded(targetX >> 4, targetZ >> 4)) {
+            target.setY(Math.max(location.getY(), world.getHighestBlockYAt(targetX, targetZ) + 1));
+          }
+          entity.teleportAsync(target);
+          pushed++;
+        }
+        default -> {
+        }
+      }
+    }
+  }
+
+  /**
+   * Helper function to check if an entity should never be removed
+   *
+   * @param entity The entity
+   * @return True if the entity is named, tamed, leashed or carrying passengers
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static boolean isKept(Entity entity) {
+    if (entity.customName() != null || !entity.getPassengers().isEmpty()) return true;
+    if (entity instanceof Tameable tameable && tameable.isTamed()) return true;
+    return entity instanceof LivingEntity living && living.isLeashed();
+  }
+
+  /**
+   * Helper function to check if entities of a class fall under {@code culling.hostile}. This API has no common
+   * interface for hostile mobs, and several of them aren't a {@link Monster}.
+   *
+   * @param entityClass The class of the entities, or null if unknown
+   * @return True for monsters, slimes, ghasts, phantoms, shulkers and hoglins
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static boolean isHostile(Class<? extends Entity> entityClass) {
+    if (entityClass == null) return false;
+    for (Class<? extends Entity> hostile : HOSTILE_CLASSES) {
+      if (hostile.isAssignableFrom(entityClass)) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Helper function to check if entities of a class are bosses, which are never removed by {@code culling.hostile}
+   *
+   * @param entityClass The class of the entities, or null if unknown
+   * @return True for the wither, the ender dragon and elder guardians
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static boolean isBoss(Class<? extends Entity> entityClass) {
+    if (entityClass == null) return false;
+    return Boss.class.isAssignableFrom(entityClass) || ElderGuardian.class.isAssignableFrom(entityClass);
+  }
+
+  /**
+   * Helper function to check if entities of a class may be pushed back inside the border. Anything else would end up
+   * floating, stuck or piled up in a small border.
+   *
+   * @param entityClass The class of the entities, or null if unknown
+   * @return True for living entities that aren't hanging entities, vehicles or projectiles
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static boolean isPushable(Class<? extends Entity> entityClass) {
+    if (entityClass == null || !LivingEntity.class.isAssignableFrom(entityClass)) return false;
+    return !Hanging.class.isAssignableFrom(entityClass) && !Vehicle.class.isAssignableFrom(entityClass)
+           && !Projectile.class.isAssignableFrom(entityClass);
+  }
+
+  /**
+   * Helper function to read a rule from the config
+   *
+   * @param value The configured value, or null
+   * @param fallback The rule to use if the value is missing or invalid
+   * @return The rule
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static Rule parseRule(Object value, Rule fallback) {
+    if (!(value instanceof String name)) return fallback;
+    try {
+      return Rule.valueOf(name.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      Bukkit.getLogger().warning("Invalid culling rule '" + name + "' in 'config.yml/culling', expected remove, push or ignore");
+      return fallback;
+    }
+  }
+
+  /**
+   * @return Number of chunks checked since the plugin was enabled
+   * @author sh0ckR6
+   * @since latest
+   */
+  public long getChunksChecked() {
+    return chunksChecked;
+  }
+
+  /**
+   * @return Number of entities removed since the plugin was enabled
+   * @author sh0ckR6
+   * @since latest
+   */
+  public long getRemoved() {
+    return removed;
+  }
+
+  /**
+   * @return Number of entities pushed back inside the border since the plugin was enabled
+   * @author sh0ckR6
+   * @since latest
+   */
+  public long getPushed() {
+    return pushed;
+  }
+
+  /**
+   * @return Average time spent per sweeping tick, in microseconds
+   * @author sh0ckR6
+   * @since latest
+   */
+  public double getAverageSweepMicros() {
+    return sweepTicks == 0 ? 0 : sweepNanos / 1000d / sweepTicks;
+  }
+}
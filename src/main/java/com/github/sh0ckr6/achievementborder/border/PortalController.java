@@ -0,0 +1,343 @@
+package com.github.sh0ckr6.achievementborder.border;
+
+import com.github.sh0ckr6.achievementborder.AchievementBorder;
+import com.github.sh0ckr6.achievementborder.managers.ConfigKeys;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.WorldBorder;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPortalEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerPortalEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent.TeleportCause;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps nether portal travel inside the border of the destination world.<br><br>
+ *
+ * Vanilla searches for (and if needed builds) a destination portal over a radius of up to 128 blocks, loading and
+ * generating every chunk in that area even when the destination's border is only a few blocks wide. Portal events
+ * into a bordered world have their target clamped into the border and their search and creation radius limited to
+ * the border's size.<br><br>
+ *
+ * Once a player has travelled through a portal, the portal they left from and the place they arrived at are linked in
+ * both directions. Later trips from the same chunk go straight to the linked portal with a minimal search radius.
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+public class PortalController implements Listener {
+
+  /**
+   * Distance to keep a clamped portal target from the edge of the border, in blocks
+   *
+   * @since latest
+   */
+  private static final double EDGE_MARGIN = 2;
+
+  /**
+   * Search radius used when travelling to a linked portal, which only has to find the portal block itself
+   *
+   * @since latest
+   */
+  private static final int LINKED_SEARCH_RADIUS = 1;
+
+  /**
+   * Reference to the plugin
+   *
+   * @since latest
+   */
+  private final AchievementBorder plugin;
+
+  /**
+   * Known portal links by world pair ({@code "from->to"}), each mapping the chunk key of a source portal to the
+   * location of its destination portal
+   *
+   * @since latest
+   */
+  private final Map<String, Map<Long, Location>> links = new HashMap<>();
+
+  /**
+   * Where each player entered the portal they are currently travelling through
+   *
+   * @since latest
+   */
+  private final Map<UUID, Location> travelling = new HashMap<>();
+
+  /**
+   * If portal travel is being constrained
+   *
+   * @since latest
+   */
+  private boolean enabled;
+
+  /**
+   * Number of portal trips whose search was limited to the border
+   *
+   * @since latest
+   */
+  private long constrainedTrips = 0;
+
+  /**
+   * Number of portal trips sent straight to a linked portal
+   *
+   * @since latest
+   */
+  private long linkedTrips = 0;
+
+  /**
+   * Registers this class as a {@link Listener} for the provided plugin and reads its settings from the config
+   *
+   * @param plugin The current plugin
+   * @author sh0ckR6
+   * @since latest
+   */
+  public PortalController(AchievementBorder plugin) {
+    this.plugin = plugin;
+    plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    loadSettings();
+  }
+
+  /**
+   * Read the portal settings from the config
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void loadSettings() {
+    enabled = ConfigKeys.PORTALS_ENABLED.get();
+    if (!enabled) {
+      links.clear();
+      travelling.clear();
+    }
+  }
+
+  /**
+   * Constrain a player's trip through a nether portal to the destination's border
+   *
+   * @param event The {@link PlayerPortalEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+  public void onPlayerPortal(PlayerPortalEvent event) {
+    if (!enabled || event.getCause() != TeleportCause.NETHER_PORTAL || event.getTo() == null) return;
+    Location to = event.getTo();
+    BorderBounds border = boundsOf(to.getWorld());
+    if (border == null) return;
+
+    Location linked = getLink(event.getFrom(), to.getWorld(), border);
+    if (linked != null) {
+      event.setTo(linked);
+      event.setSearchRadius(LINKED_SEARCH_RADIUS);
+      linkedTrips++;
+      return;
+    }
+
+    int radius = radiusFor(border);
+    event.setTo(border.clamp(to, EDGE_MARGIN));
+    event.setSearchRadius(Math.min(event.getSearchRadius(), radius));
+    event.setCreationRadius(Math.min(event.getCreationRadius(), radius));
+    constrainedTrips++;
+  }
+
+  /**
+   * Constrain an entity's trip through a nether portal to the destination's border
+   *
+   * @param event The {@link EntityPortalEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+  public void onEntityPortal(EntityPortalEvent event) {
+    if (!enabled || event.getTo() == null) return;
+    Location to = event.getTo();
+    // End portals always lead to fixed locations, so only trips between the overworld and the nether are touched
+    if (to.getWorld().getEnvironment() == World.Environment.THE_END || event.getFrom().getWorld().getEnvironment() == World.Environment.THE_END) return;
+    BorderBounds border = boundsOf(to.getWorld());
+    if (border == null) return;
+
+    Location linked = getLink(event.getFrom(), to.getWorld(), border);
+    if (linked != null) {
+      event.setTo(linked);
+      event.setSearchRadius(LINKED_SEARCH_RADIUS);
+      linkedTrips++;
+      return;
+    }
+
+    event.setTo(border.clamp(to, EDGE_MARGIN));
+    event.setSearchRadius(Math.min(event.getSearchRadius(), radiusFor(border)));
+    constrainedTrips++;
+  }
+
+  /**
+   * Remember where a player entered a portal, so the trip can be linked once they arrive
+   *
+   * @param event The {@link PlayerPortalEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onPlayerPortalMonitor(PlayerPortalEvent event) {
+    if (!enabled || event.getCause() != TeleportCause.NETHER_PORTAL) return;
+    travelling.put(event.getPlayer().getUniqueId(), event.getFrom().clone());
+  }
+
+  /**
+   * Link the portal a player left from to the place they arrived at, in both directions
+   *
+   * @param event The {@link PlayerChangedWorldEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler
+  public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+    Location from = travelling.remove(event.getPlayer().getUniqueId());
+    if (from == null || from.getWorld() != event.getFrom()) return;
+    Location to = event.getPlayer().getLocation().toBlockLocation();
+    putLink(from.toBlockLocation(), to);
+    putLink(to, from.toBlockLocation());
+  }
+
+  /**
+   * Forget an unfinished trip when a player leaves
+   *
+   * @param event The {@link PlayerQuitEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler
+  public void onPlayerQuit(PlayerQuitEvent event) {
+    travelling.remove(event.getPlayer().getUniqueId());
+  }
+
+  /**
+   * Forget every link into or out of a world when it is unloaded
+   *
+   * @param event The {@link WorldUnloadEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onWorldUnload(WorldUnloadEvent event) {
+    String worldName = event.getWorld().getName();
+    links.keySet().removeIf(pair -> pair.startsWith(worldName + "->") || pair.endsWith("->" + worldName));
+  }
+
+  /**
+   * Helper function to get the bounds of a world's border
+   *
+   * @param world The world
+   * @return The bounds of the world's border, or null if the world's border isn't controlled by the plugin
+   * @author sh0ckR6
+   * @since latest
+   */
+  private BorderBounds boundsOf(World world) {
+    if (!plugin.borderUpdater.isBordered(world)) return null;
+    WorldBorder border = world.getWorldBorder();
+    return BorderBounds.of(border, border.getSize());
+  }
+
+  /**
+   * Helper function to get the largest radius worth searching for or building a portal in
+   *
+   * @param border The bounds of the destination's border
+   * @return The radius, in blocks
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static int radiusFor(BorderBounds border) {
+    return Math.max(1, (int) Math.ceil(border.size() / 2));
+  }
+
+  /**
+   * Helper function to look up the destination linked to a portal
+   *
+   * @param from Where the portal was entered
+   * @param destination The world the portal leads to
+   * @param border The bounds of the destination's border
+   * @return The linked destination, or null if there is no usable link
+   * @author sh0ckR6
+   * @since latest
+   */
+  private Location getLink(Location from, World destination, BorderBounds border) {
+    Map<Long, Location> pairLinks = links.get(pairKey(from.getWorld(), destination));
+    if (pairLinks == null) return null;
+    long sourceKey = Chunk.getChunkKey(from.getBlockX() >> 4, from.getBlockZ() >> 4);
+    Location linked = pairLinks.get(sourceKey);
+    if (linked == null) return null;
+
+    boolean broken = !border.contains(linked.getX(), linked.getZ());
+    // Only check the portal is still there if that doesn't mean loading its chunk
+    if (!broken && destination.isChunkLoaded(linked.getBlockX() >> 4, linked.getBlockZ() >> 4)) {
+      broken = linked.getBlock().getType() != Material.NETHER_PORTAL;
+    }
+    if (broken) {
+      pairLinks.remove(sourceKey);
+      return null;
+    }
+    return linked.clone();
+  }
+
+  /**
+   * Helper function to link a portal to a destination
+   *
+   * @param from Where the portal was entered
+   * @param to Where the portal leads
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void putLink(Location from, Location to) {
+    links.computeIfAbsent(pairKey(from.getWorld(), to.getWorld()), pair -> new HashMap<>())
+         .put(Chunk.getChunkKey(from.getBlockX() >> 4, from.getBlockZ() >> 4), to);
+  }
+
+  /**
+   * @param from The world a portal is in
+   * @param to The world the portal leads to
+   * @return The key of the world pair in {@link #links}
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static String pairKey(World from, World to) {
+    return from.getName() + "->" + to.getName();
+  }
+
+  /**
+   * @return Number of portal trips whose search was limited to the border
+   * @author sh0ckR6
+   * @since latest
+   */
+  public long getConstrainedTrips() {
+    return constrainedTrips;
+  }
+
+  /**
+   * @return Number of portal trips sent straight to a linked portal
+   * @author sh0ckR6
+   * @since latest
+   */
+  public long getLinkedTrips() {
+    return linkedTrips;
+  }
+
+  /**
+   * @return Number of portal links known across every world pair
+   * @author sh0ckR6
+   * @since latest
+   */
+  public int getLinkCount() {
+    int count = 0;
+    for (Map<Long, Location> pairLinks : links.values()) count += pairLinks.size();
+    return count;
+  }
+}
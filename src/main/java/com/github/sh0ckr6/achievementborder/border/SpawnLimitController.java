@@ -0,0 +1,227 @@
+package com.github.sh0ckr6.achievementborder.border;
+
+import com.github.sh0ckr6.achievementborder.AchievementBorder;
+import com.github.sh0ckr6.achievementborder.managers.ConfigKeys;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Scales each bordered world's own spawn limits to the area inside its border.<br><br>
+ *
+ * Vanilla sizes its mob caps for the 17x17 chunks around every player, even when only a handful of them are inside
+ * the border, and keeps attempting spawns that {@code MobControl} then has to reject. Whenever a border changes, the
+ * world's monster, animal and ambient spawn limits are scaled down by the fraction of that area the border covers,
+ * and the ticks between spawn attempts are stretched by up to {@code spawn-limits.max-interval-factor} times, so the
+ * server skips most attempts on its own. The world's original settings are restored once its border is turned off or
+ * the plugin is disabled.
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+public class SpawnLimitController implements Listener {
+
+  /**
+   * Number of chunks vanilla sizes its mob caps for, the 17x17 chunks around a player
+   *
+   * @since latest
+   */
+  private static final double VANILLA_SPAWN_CHUNKS = 17 * 17;
+
+  /**
+   * A world's spawn limits and spawn intervals
+   *
+   * @param monsterLimit The monster spawn limit
+   * @param animalLimit The animal spawn limit
+   * @param ambientLimit The ambient spawn limit
+   * @param monsterTicks The ticks between monster spawn attempts
+   * @param animalTicks The ticks between animal spawn attempts
+   * @param ambientTicks The ticks between ambient spawn attempts
+   * @author sh0ckR6
+   * @since latest
+   */
+  private record SpawnSettings(int monsterLimit, int animalLimit, int ambientLimit, int monsterTicks, int animalTicks, int ambientTicks) {
+
+    /**
+     * @param world The world
+     * @return The world's current settings
+     * @author sh0ckR6
+     * @since latest
+     */
+    private static SpawnSettings of(World world) {
+      return new SpawnSettings(world.getMonsterSpawnLimit(), world.getAnimalSpawnLimit(), world.getAmbientSpawnLimit(),
+                               (int) world.getTicksPerMonsterSpawns(), (int) world.getTicksPerAnimalSpawns(), (int) world.getTicksPerAmbientSpawns());
+    }
+
+    /**
+     * Apply these settings to a world
+     *
+     * @param world The world
+     * @author sh0ckR6
+     * @since latest
+     */
+    private void apply(World world) {
+      world.setMonsterSpawnLimit(monsterLimit);
+      world.setAnimalSpawnLimit(animalLimit);
+      world.setAmbientSpawnLimit(ambientLimit);
+      world.setTicksPerMonsterSpawns(monsterTicks);
+      world.setTicksPerAnimalSpawns(animalTicks);
+      world.setTicksPerAmbientSpawns(ambientTicks);
+    }
+
+    /**
+     * Scale these settings down to a fraction of the vanilla spawn area
+     *
+     * @param coverage The fraction of the vanilla spawn area inside the border, at most 1
+     * @param intervalFactor How many times longer the ticks between spawn attempts may become
+     * @return The scaled settings
+     * @author sh0ckR6
+     * @since latest
+     */
+    private SpawnSettings scale(double coverage, int intervalFactor) {
+      int factor = Math.max(1, Math.min(intervalFactor, (int) Math.ceil(1 / coverage)));
+      return new SpawnSettings(scaleLimit(monsterLimit, coverage), scaleLimit(animalLimit, coverage), scaleLimit(ambientLimit, coverage),
+                               scaleTicks(monsterTicks, factor), scaleTicks(animalTicks, factor), scaleTicks(ambientTicks, factor));
+    }
+
+    /**
+     * @param limit A spawn limit, negative to use the server default
+     * @param coverage The fraction of the vanilla spawn area inside the border
+     * @return The scaled limit, which stays negative if it was
+     * @author sh0ckR6
+     * @since latest
+     */
+    private static int scaleLimit(int limit, double coverage) {
+      if (limit < 0) return limit;
+      return (int) Math.ceil(limit * coverage);
+    }
+
+    /**
+     * @param ticks Ticks between spawn attempts, 0 or less if spawning is turned off
+     * @param factor How many times longer the ticks between attempts become
+     * @return The scaled ticks
+     * @author sh0ckR6
+     * @since latest
+     */
+    private static int scaleTicks(int ticks, int factor) {
+      if (ticks <= 0) return ticks;
+      return ticks * factor;
+    }
+  }
+
+  /**
+   * Reference to the plugin
+   *
+   * @since latest
+   */
+  private final AchievementBorder plugin;
+
+  /**
+   * The settings of every managed world before the plugin changed them, by world name
+   *
+   * @since latest
+   */
+  private final Map<String, SpawnSettings> originals = new HashMap<>();
+
+  /**
+   * If spawn limits are being managed
+   *
+   * @since latest
+   */
+  private boolean enabled;
+
+  /**
+   * How many times longer the ticks between spawn attempts may become
+   *
+   * @since latest
+   */
+  private int maxIntervalFactor;
+
+  /**
+   * Creates a new controller, registers it as a {@link Listener} and reads its settings from the config
+   *
+   * @param plugin The current plugin
+   * @author sh0ckR6
+   * @since latest
+   */
+  public SpawnLimitController(AchievementBorder plugin) {
+    this.plugin = plugin;
+    plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    loadSettings();
+  }
+
+  /**
+   * Read the spawn limit settings from the config. Limits are recomputed the next time each border changes.
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void loadSettings() {
+    enabled = ConfigKeys.SPAWN_LIMITS_ENABLED.get();
+    maxIntervalFactor = ConfigKeys.SPAWN_LIMITS_MAX_INTERVAL_FACTOR.get();
+    if (!enabled) restoreAll();
+  }
+
+  /**
+   * Scale a world's spawn limits whenever its border changes
+   *
+   * @param event The {@link BorderChangeEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler
+  public void onBorderChange(BorderChangeEvent event) {
+    World world = event.getWorld();
+    if (!enabled || event.isDisabled()) {
+      restore(world);
+      return;
+    }
+
+    double coverage = Math.min(1, event.getBounds().area() / 256 / VANILLA_SPAWN_CHUNKS);
+    SpawnSettings original = originals.computeIfAbsent(world.getName(), name -> SpawnSettings.of(world));
+    original.scale(coverage, maxIntervalFactor).apply(world);
+  }
+
+  /**
+   * Restore a world's original spawn settings
+   *
+   * @param world The world to restore
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void restore(World world) {
+    SpawnSettings original = originals.remove(world.getName());
+    if (original != null) original.apply(world);
+  }
+
+  /**
+   * Restore the original spawn settings of every world, for example when the plugin is disabled
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void restoreAll() {
+    for (String worldName : new HashSet<>(originals.keySet())) {
+      World world = Bukkit.getWorld(worldName);
+      if (world != null) {
+        restore(world);
+      } else {
+        originals.remove(worldName);
+      }
+    }
+  }
+
+  /**
+   * @return Number of worlds whose spawn limits are being managed
+   * @author sh0ckR6
+   * @since latest
+   */
+  public int getManagedWorlds() {
+    return originals.size();
+  }
+}
@@ -0,0 +1,282 @@
+package com.github.sh0ckr6.achievementborder.border;
+
+import com.github.sh0ckr6.achievementborder.AchievementBorder;
+import com.github.sh0ckr6.achievementborder.managers.ConfigKeys;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Scales each player's view distance to the border of the world they are in.<br><br>
+ *
+ * For most of a run the border is only a few blocks wide, so loading and sending chunks out to the full server view
+ * distance is wasted. A player's view distance is set to just reach the far edge of the border from the chunk they are
+ * in, clamped between {@code view-distance.min} and {@code view-distance.max}, and their no-tick view distance is
+ * set {@code view-distance.no-tick-margin} chunks further out. Servers that don't implement per-player view distances
+ * yet only have the no-tick view distance scaled.<br><br>
+ *
+ * View distances are only recomputed when a border changes or a player moves into another chunk. This is off by
+ * default until {@code view-distance.enabled} is turned on.
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+public class ViewDistanceController implements Listener {
+
+  /**
+   * Reference to the plugin
+   *
+   * @since latest
+   */
+  private final AchievementBorder plugin;
+
+  /**
+   * Bounds of every bordered world, by world name
+   *
+   * @since latest
+   */
+  private final Map<String, BorderBounds> bounds = new HashMap<>();
+
+  /**
+   * The view distance and no-tick view distance last applied to each player
+   *
+   * @since latest
+   */
+  private final Map<UUID, int[]> applied = new HashMap<>();
+
+  /**
+   * If view distances are being controlled
+   *
+   * @since latest
+   */
+  private boolean enabled;
+
+  /**
+   * Smallest view distance a player may be given
+   *
+   * @since latest
+   */
+  private int minDistance;
+
+  /**
+   * Largest view distance a player may be given
+   *
+   * @since latest
+   */
+  private int maxDistance;
+
+  /**
+   * How many chunks past the view distance the no-tick view distance extends
+   *
+   * @since latest
+   */
+  private int noTickMargin;
+
+  /**
+   * If the server implements {@link Player#setViewDistance(int)}, false once it has thrown
+   *
+   * @since latest
+   */
+  private boolean viewDistanceSupported = true;
+
+  /**
+   * Registers this class as a {@link Listener} for the provided plugin and reads its settings from the config
+   *
+   * @param plugin The current plugin
+   * @author sh0ckR6
+   * @since latest
+   */
+  public ViewDistanceController(AchievementBorder plugin) {
+    this.plugin = plugin;
+    plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    loadSettings();
+  }
+
+  /**
+   * Read the view distance settings from the config and reapply them to everyone online
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void loadSettings() {
+    boolean wasEnabled = enabled;
+    enabled = ConfigKeys.VIEW_DISTANCE_ENABLED.get();
+    minDistance = ConfigKeys.VIEW_DISTANCE_MIN.get();
+    maxDistance = ConfigKeys.VIEW_DISTANCE_MAX.get();
+    noTickMargin = ConfigKeys.VIEW_DISTANCE_NO_TICK_MARGIN.get();
+    if (maxDistance <= 0) maxDistance = Bukkit.getViewDistance();
+
+    applied.clear();
+    if (enabled || wasEnabled) {
+      for (Player player : Bukkit.getOnlinePlayers()) {
+        update(player, player.getLocation());
+      }
+    }
+  }
+
+  /**
+   * Recompute the view distance of every player in a world whose border has changed
+   *
+   * @param event The {@link BorderChangeEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler
+  public void onBorderChange(BorderChangeEvent event) {
+    World world = event.getWorld();
+    if (event.isDisabled()) {
+      bounds.remove(world.getName());
+    } else {
+      bounds.put(world.getName(), event.getBounds());
+    }
+    if (!enabled) return;
+    for (Player player : world.getPlayers()) {
+      update(player, player.getLocation());
+    }
+  }
+
+  /**
+   * Recompute a player's view distance when they move into another chunk
+   *
+   * @param event The {@link PlayerMoveEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onPlayerMove(PlayerMoveEvent event) {
+    if (!enabled) return;
+    Location from = event.getFrom();
+    Location to = event.getTo();
+    if (from.getBlockX() >> 4 == to.getBlockX() >> 4 && from.getBlockZ() >> 4 == to.getBlockZ() >> 4) return;
+    update(event.getPlayer(), to);
+  }
+
+  /**
+   * Recompute a player's view distance when they teleport
+   *
+   * @param event The {@link PlayerTeleportEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onPlayerTeleport(PlayerTeleportEvent event) {
+    if (!enabled) return;
+    update(event.getPlayer(), event.getTo());
+  }
+
+  /**
+   * Set a player's view distance when they join
+   *
+   * @param event The {@link PlayerJoinEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPlayerJoin(PlayerJoinEvent event) {
+    if (!enabled) return;
+    update(event.getPlayer(), event.getPlayer().getLocation());
+  }
+
+  /**
+   * Recompute a player's view distance when they arrive in another world
+   *
+   * @param event The {@link PlayerChangedWorldEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+    if (!enabled) return;
+    update(event.getPlayer(), event.getPlayer().getLocation());
+  }
+
+  /**
+   * Forget the view distance applied to a player when they leave
+   *
+   * @param event The {@link PlayerQuitEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler
+  public void onPlayerQuit(PlayerQuitEvent event) {
+    applied.remove(event.getPlayer().getUniqueId());
+  }
+
+  /**
+   * Helper function to compute and apply a player's view distances
+   *
+   * @param player The player to update
+   * @param location Where the player is, or is about to be
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void update(Player player, Location location) {
+    World world = location.getWorld();
+    BorderBounds border = enabled ? bounds.get(world.getName()) : null;
+
+    int viewDistance;
+    int noTickViewDistance;
+    if (border == null) {
+      // No border to scale to, so fall back to the world's own settings
+      viewDistance = world.getViewDistance();
+      noTickViewDistance = world.getNoTickViewDistance();
+    } else {
+      // Distance from the player's chunk to the far edge of the border, plus the chunk the edge is in
+      int chunkX = location.getBlockX() >> 4;
+      int chunkZ = location.getBlockZ() >> 4;
+      int reachX = Math.max(Math.abs(chunkX - ((int) Math.floor(border.minX()) >> 4)), Math.abs(((int) Math.floor(border.maxX()) >> 4) - chunkX));
+      int reachZ = Math.max(Math.abs(chunkZ - ((int) Math.floor(border.minZ()) >> 4)), Math.abs(((int) Math.floor(border.maxZ()) >> 4) - chunkZ));
+      int reach = Math.max(reachX, reachZ) + 1;
+      viewDistance = Math.max(minDistance, Math.min(maxDistance, reach));
+      noTickViewDistance = Math.max(viewDistance, Math.min(maxDistance, reach + noTickMargin));
+    }
+
+    int[] last = applied.get(player.getUniqueId());
+    if (last != null && last[0] == viewDistance && last[1] == noTickViewDistance) return;
+    applied.put(player.getUniqueId(), new int[]{viewDistance, noTickViewDistance});
+    if (!viewDistanceSupported) {
+      player.setNoTickViewDistance(noTickViewDistance);
+      return;
+    }
+    // The no-tick view distance can't be below the view distance, so apply them in an order that never crosses
+    if (last != null && viewDistance < last[0]) {
+      setViewDistance(player, viewDistance);
+      player.setNoTickViewDistance(noTickViewDistance);
+    } else {
+      player.setNoTickViewDistance(noTickViewDistance);
+      setViewDistance(player, viewDistance);
+    }
+  }
+
+  /**
+   * Helper function to set a player's view distance, falling back to only setting no-tick view distances from then on
+   * if the server doesn't implement it
+   *
+   * @param player The player to update
+   * @param viewDistance The view distance to set
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void setViewDistance(Player player, int viewDistance) {
+    try {
+      player.setViewDistance(viewDistance);
+    } catch (UnsupportedOperationException e) {
+      // Still a stub that throws NotImplementedException on 1.17.1
+      viewDistanceSupported = false;
+      plugin.getLogger().warning("This server can't set player view distances, only no-tick view distances will be scaled to the border");
+    }
+  }
+}
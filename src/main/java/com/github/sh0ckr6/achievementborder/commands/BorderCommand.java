@@ -0,0 +1,162 @@
+package com.github.sh0ckr6.achievementborder.commands;
+
+import com.github.sh0ckr6.achievementborder.AchievementBorder;
+import com.github.sh0ckr6.achievementborder.border.ChunkPregenerator;
+import com.github.sh0ckr6.achievementborder.managers.ConfigManager;
+import com.github.sh0ckr6.achievementborder.managers.YamlFileCache;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.World;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link BaseCommand} class representing the <code>/border</code> command
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+public class BorderCommand extends BaseCommand implements TabCompleter {
+
+  /**
+   * Registers this class as a {@link CommandExecutor} for the given command
+   *
+   * @param plugin The plugin to register this to
+   * @author sh0ckR6
+   * @since latest
+   */
+  public BorderCommand(AchievementBorder plugin) {
+    super(plugin, "border");
+    plugin.getCommand(name).setTabCompleter(this);
+  }
+
+  /**
+   * Extended from this class's parent, after passing all checks in {@link #onCommand}, this function will be run
+   *
+   * @param sender The sender of the command
+   * @param command The {@link Command} that was run
+   * @param label The name of the command
+   * @param args The arguments passed to the command
+   * @return If the command was successfully executed
+   * @author sh0ckR6
+   * @since latest
+   */
+  @Override
+  protected boolean execute(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+    if (args.length == 0) return false;
+    switch (args[0]) {
+      case "stats" -> handleStats(sender);
+      case "pregen" -> handlePregen(sender);
+      case "mobs" -> handleMobs(sender);
+      default -> sender.sendMessage(ChatColor.RED + "Option " + args[0] + " not found! Please check your spelling and try again!");
+    }
+    return true;
+  }
+
+  /**
+   * Generate tab completion for the arguments of this command
+   *
+   * @param sender The {@link CommandSender} of the command
+   * @param command The {@link Command} that was run
+   * @param alias The alias name of this command that was used
+   * @param args The current list of arguments
+   * @return A list of options for tab completion
+   * @author sh0ckR6
+   * @since latest
+   */
+  @Override
+  public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
+    List<String> tabList = new ArrayList<>();
+    if (args.length == 1) tabList.addAll(List.of("stats", "pregen", "mobs"));
+    return tabList;
+  }
+
+  /**
+   * Handle <code>stats</code> subcommand
+   *
+   * @param sender The {@link CommandSender} that sent the command
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void handleStats(CommandSender sender) {
+    sender.sendMessage(ChatColor.GREEN + "Shared advancements: " + ChatColor.GOLD + plugin.advancements.size() + ChatColor.GREEN + '/' + ChatColor.GOLD + plugin.catalog.size());
+    sender.sendMessage(ChatColor.GREEN + "Unlocks propagated: " + ChatColor.GOLD + plugin.propagator.getLogicalUnlocks());
+    sender.sendMessage(ChatColor.GREEN + "Advancements granted: " + ChatColor.GOLD + plugin.propagator.getGrants());
+    sender.sendMessage(ChatColor.GREEN + "Redundant unlock events absorbed: " + ChatColor.GOLD + plugin.propagator.getAbsorbedEvents());
+    sender.sendMessage(ChatColor.GREEN + "Pending grants: " + ChatColor.GOLD + plugin.awardScheduler.getQueueDepth());
+    sender.sendMessage(ChatColor.GREEN + "Chunk tickets held: " + ChatColor.GOLD + plugin.chunkTickets.getTicketCount());
+    sender.sendMessage(ChatColor.GREEN + "Portal trips constrained: " + ChatColor.GOLD + plugin.portalController.getConstrainedTrips()
+                       + ChatColor.GREEN + ", linked: " + ChatColor.GOLD + plugin.portalController.getLinkedTrips()
+                       + ChatColor.GREEN + " (" + ChatColor.GOLD + plugin.portalController.getLinkCount() + ChatColor.GREEN + " links)");
+    sender.sendMessage(ChatColor.GREEN + "Hostile spawns aborted: " + ChatColor.GOLD + plugin.mobControl.getAbortedSpawns()
+                       + ChatColor.GREEN + ", cancelled: " + ChatColor.GOLD + plugin.mobControl.getCancelledSpawns());
+    sender.sendMessage(ChatColor.GREEN + "Drops merged on spawn: " + ChatColor.GOLD + plugin.dropDensity.getMergedItems()
+                       + ChatColor.GREEN + " items, " + ChatColor.GOLD + plugin.dropDensity.getMergedOrbs() + ChatColor.GREEN + " orbs");
+    sender.sendMessage(ChatColor.GREEN + "Outside the border: " + ChatColor.GOLD + plugin.outsideSweeper.getRemoved()
+                       + ChatColor.GREEN + " removed, " + ChatColor.GOLD + plugin.outsideSweeper.getPushed()
+                       + ChatColor.GREEN + " pushed back, " + ChatColor.GOLD + plugin.outsideSweeper.getChunksChecked()
+                       + ChatColor.GREEN + " chunks checked (" + ChatColor.GOLD + String.format("%.3f", plugin.outsideSweeper.getAverageSweepMicros() / 1000)
+                       + ChatColor.GREEN + "ms per tick)");
+    YamlFileCache fileCache = ConfigManager.getFileCache();
+    sender.sendMessage(ChatColor.GREEN + "Config file cache: " + ChatColor.GOLD + fileCache.getHits()
+                       + ChatColor.GREEN + " hits, " + ChatColor.GOLD + fileCache.getMisses()
+                       + ChatColor.GREEN + " misses (" + ChatColor.GOLD + fileCache.size() + ChatColor.GREEN + " files, "
+                       + ChatColor.GOLD + fileCache.getCachedBytes() / 1024 + ChatColor.GREEN + "KB)");
+  }
+
+  /**
+   * Handle <code>pregen</code> subcommand
+   *
+   * @param sender The {@link CommandSender} that sent the command
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void handlePregen(CommandSender sender) {
+    ChunkPregenerator pregenerator = plugin.pregenerator;
+    sender.sendMessage(ChatColor.GREEN + "Chunks pregenerated: " + ChatColor.GOLD + pregenerator.getTotalGenerated()
+                       + ChatColor.GREEN + ", in flight: " + ChatColor.GOLD + pregenerator.getInFlight()
+                       + ChatColor.GREEN + ", ticks throttled: " + ChatColor.GOLD + pregenerator.getThrottledTicks());
+    if (pregenerator.getJobs().isEmpty()) {
+      sender.sendMessage(ChatColor.GREEN + "Every world is pregenerated ahead of its border.");
+      return;
+    }
+    for (Map.Entry<String, ChunkPregenerator.Job> entry : pregenerator.getJobs().entrySet()) {
+      ChunkPregenerator.Job job = entry.getValue();
+      sender.sendMessage(ChatColor.GOLD + entry.getKey() + ChatColor.GREEN + ": "
+                         + ChatColor.GOLD + job.getChecked() + ChatColor.GREEN + '/' + ChatColor.GOLD + job.getPlanned()
+                         + ChatColor.GREEN + " chunks checked (" + ChatColor.GOLD + job.getGenerated() + ChatColor.GREEN
+                         + " generated) for a border of " + ChatColor.GOLD + (int) job.getPredictedSize() + ChatColor.GREEN + " blocks");
+    }
+  }
+
+  /**
+   * Handle <code>mobs</code> subcommand
+   *
+   * @param sender The {@link CommandSender} that sent the command
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void handleMobs(CommandSender sender) {
+    sender.sendMessage(ChatColor.GREEN + "Worlds with scaled spawn limits: " + ChatColor.GOLD + plugin.spawnLimits.getManagedWorlds());
+    if (plugin.mobControl.isBootstrapping()) {
+      sender.sendMessage(ChatColor.GREEN + "Still counting existing mobs, caps are halved until that finishes.");
+    }
+    sender.sendMessage(ChatColor.GREEN + "Count drift corrected: " + ChatColor.GOLD + plugin.mobControl.getTotalDrift()
+                       + ChatColor.GREEN + ", in the last sweep: " + ChatColor.GOLD + plugin.mobControl.getLastSweepDrift()
+                       + ChatColor.GREEN + " (" + ChatColor.GOLD + plugin.mobControl.getCompletedSweeps() + ChatColor.GREEN + " sweeps)");
+    for (World world : Bukkit.getWorlds()) {
+      sender.sendMessage(ChatColor.GOLD + world.getName() + ChatColor.GREEN + ": "
+                         + ChatColor.GOLD + plugin.mobControl.getHostileCount(world) + ChatColor.GREEN + '/' + ChatColor.GOLD + plugin.mobControl.getHostileCap(world)
+                         + ChatColor.GREEN + " hostile mobs in " + ChatColor.GOLD + plugin.mobControl.getOccupiedChunks(world)
+                         + ChatColor.GREEN + " chunks");
+    }
+  }
+}
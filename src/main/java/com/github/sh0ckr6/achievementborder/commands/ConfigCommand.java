@@ -116,12 +116,14 @@ public class ConfigCommand extends BaseCommand implements TabCompleter {
     
     if (configName.equals("*")) {
       ConfigManager.reloadConfigs(plugin);
+      plugin.onConfigsReloaded();
       sender.sendMessage(ChatColor.GREEN + "Reloaded all configuration files!");
       return;
     }
     
     try {
       ConfigManager.reloadConfig(configName, plugin);
+      plugin.onConfigsReloaded();
       sender.sendMessage(ChatColor.GREEN + "Reloaded the configuration '" + ChatColor.GOLD + name + ChatColor.GREEN + '!');
     } catch (MissingResourceException e) {
       sender.sendMessage(ChatColor.RED + "The requested configuration file could not be found. Check you spelling and try again!");
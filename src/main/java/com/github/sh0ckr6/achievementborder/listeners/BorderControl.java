@@ -1,21 +1,22 @@
 package com.github.sh0ckr6.achievementborder.listeners;
 
 import com.github.sh0ckr6.achievementborder.AchievementBorder;
-import com.github.sh0ckr6.achievementborder.managers.ConfigManager;
-import com.github.sh0ckr6.achievementborder.managers.Configuration;
+import com.github.sh0ckr6.achievementborder.managers.ConfigKeys;
+import io.papermc.paper.event.server.ServerResourcesReloadedEvent;
 import org.bukkit.Bukkit;
-import org.bukkit.WorldBorder;
 import org.bukkit.advancement.Advancement;
-import org.bukkit.advancement.AdvancementProgress;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerAdvancementDoneEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -44,36 +45,25 @@ public class BorderControl implements Listener {
     this.plugin = plugin;
     plugin.getServer().getPluginManager().registerEvents(this, plugin);
   
-    // Get all saved advancements
-    List<String> advancements = ConfigManager.readFromConfig("config", "advancements");
-    Iterator<Advancement> it = Bukkit.advancementIterator();
-    while (it.hasNext()){
-      Advancement adv = it.next();
-      if (advancements.contains(adv.getKey().toString())) {
-        plugin.advancements.add(adv);
-      }
+    // Get all saved advancements, preferring the compact form if it was saved against the same catalog
+    if (!plugin.advancements.deserialize(ConfigKeys.ADVANCEMENT_DATA.get())) {
+      plugin.advancements.addKeys(ConfigKeys.ADVANCEMENTS.get());
     }
     
     // Get all online players' advancements
+    Map<Player, BitSet> completed = new HashMap<>();
     for (Player player : Bukkit.getOnlinePlayers()) {
-      for (Advancement completedAdvancement : getCompletedAdvancements(player)) {
-        if (!plugin.advancements.contains(completedAdvancement)) {
-          plugin.advancements.add(completedAdvancement);
-        }
-      }
+      BitSet playerCompleted = getSnapshot(player);
+      completed.put(player, playerCompleted);
+      plugin.advancements.newIn(playerCompleted).stream().forEach(plugin.advancements::add);
     }
   
-    // Award all online players any missing advancements
-    for (Player player : Bukkit.getOnlinePlayers()) {
-      for (Advancement advancement : plugin.advancements) {
-        AdvancementProgress advancementProgress = player.getAdvancementProgress(advancement);
-        for (String remainingCriterion : advancementProgress.getRemainingCriteria()) {
-          advancementProgress.awardCriteria(remainingCriterion);
-        }
-      }
+    // Queue any missing advancements for all online players
+    for (Player player : completed.keySet()) {
+      plugin.advancements.missingFrom(completed.get(player)).stream().forEach(ordinal -> plugin.awardScheduler.enqueue(player, plugin.catalog.get(ordinal), true));
     }
     
-    updateBorders();
+    plugin.borderUpdater.markDirty();
   }
   
   /**
@@ -88,21 +78,47 @@ public class BorderControl implements Listener {
     // Check if the unlocked advancement is actually an advancement
     // For some reason recipe unlocks also trigger this event
     // and it's absolutely infuriating.
-    if (!isValidAdvancement(event.getAdvancement())) return;
+    int ordinal = plugin.catalog.ordinalOf(event.getAdvancement());
+    if (ordinal < 0) return;
+    
+    // Update the player's snapshot
+    plugin.completionCache.markCompleted(event.getPlayer().getUniqueId(), ordinal);
+    
+    // If this was fired by one of our own grants, the unlock that caused it is already being propagated
+    if (plugin.propagator.absorb()) return;
     
     // Update the master list if needed
-    if (!plugin.advancements.contains(event.getAdvancement())) {
-      plugin.advancements.add(event.getAdvancement());
-    }
+    plugin.advancements.add(ordinal);
+    plugin.propagator.propagate(event.getAdvancement());
+    plugin.awardScheduler.requestBorderUpdate();
+  }
+  
+  /**
+   * Rebuilds the advancement catalog when the server reloads its data packs, since advancements may have been
+   * added or removed
+   *
+   * @param event The {@link ServerResourcesReloadedEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
+   */
+  @EventHandler
+  public void onResourcesReloaded(ServerResourcesReloadedEvent event) {
+    plugin.rebuildCatalog();
+    syncOnlinePlayers();
+  }
   
+  /**
+   * Sync every online player again after the catalog was rebuilt, since their snapshots and pending grants were
+   * dropped with the old catalog
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void syncOnlinePlayers() {
     for (Player player : Bukkit.getOnlinePlayers()) {
-      AdvancementProgress progress = player.getAdvancementProgress(event.getAdvancement());
-      for (String criterion : progress.getRemainingCriteria()) {
-        progress.awardCriteria(criterion);
-      }
+      syncPlayer(player);
     }
-  
-    updateBorders();
+    plugin.borderUpdater.markDirty();
   }
   
   /**
@@ -121,119 +137,127 @@ public class BorderControl implements Listener {
    */
   @EventHandler
   public void onPlayerJoin(PlayerJoinEvent event) {
-    WorldBorder border = event.getPlayer().getWorld().getWorldBorder();
+    syncPlayer(event.getPlayer());
+    plugin.awardScheduler.requestBorderUpdate();
+  }
+  
+  /**
+   * Helper function to share a player's advancements with everyone and queue the shared advancements they are missing
+   *
+   * @param player The player to sync
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void syncPlayer(Player player) {
+    // Returning players are diffed against their snapshot, so only advancements that changed are touched
+    BitSet completed = getSnapshot(player);
     
     // Add any achievements this player has to the master list if needed
-    for (Advancement advancement : getCompletedAdvancements(event.getPlayer())) {
-      if (!plugin.advancements.contains(advancement)) {
-        plugin.advancements.add(advancement);
-        
-        // Update the online player's to include have these achievements unlocked
-        for (Player player : Bukkit.getOnlinePlayers()) {
-          AdvancementProgress advancementProgress = player.getAdvancementProgress(advancement);
-          for (String remainingCriterion : advancementProgress.getRemainingCriteria()) {
-            advancementProgress.awardCriteria(remainingCriterion);
-          }
-        }
-      }
+    BitSet added = plugin.advancements.newIn(completed);
+    for (int ordinal = added.nextSetBit(0); ordinal >= 0; ordinal = added.nextSetBit(ordinal + 1)) {
+      plugin.advancements.add(ordinal);
+      
+      // Update the online player's to include have these achievements unlocked
+      plugin.propagator.propagate(plugin.catalog.get(ordinal));
     }
     
-    // Award all achievements that the new player is missing from the master list
-    for (Advancement advancement : plugin.advancements) {
-      AdvancementProgress advancementProgress = event.getPlayer().getAdvancementProgress(advancement);
-      if (!advancementProgress.isDone()) {
-        for (String remainingCriterion : advancementProgress.getRemainingCriteria()) {
-          advancementProgress.awardCriteria(remainingCriterion);
-        }
-      }
+    // Queue all achievements that the new player is missing from the master list
+    BitSet missing = plugin.advancements.missingFrom(completed);
+    for (int ordinal = missing.nextSetBit(0); ordinal >= 0; ordinal = missing.nextSetBit(ordinal + 1)) {
+      plugin.awardScheduler.enqueue(player, plugin.catalog.get(ordinal), true);
     }
-    
-    updateBorders();
   }
   
   /**
-   * Helper function to update a world's border.
+   * Reads a joining player's advancement snapshot from disk before they are on the main thread. Only done once every
+   * other plugin has had the chance to deny the login.
+   *
+   * @param event The {@link AsyncPlayerPreLoginEvent} passed to this function automatically
    * @author sh0ckR6
-   * @since 1.0
+   * @since latest
    */
-  private void updateBorders() {
-    // Get a list of every registered world that needs to have its border updated
-    Configuration config = ConfigManager.getConfig("config");
-    Map<String, Object> worldBorders = config.yamlConfig.getConfigurationSection("borders").getValues(false);
-    for (String worldName : worldBorders.keySet()) {
-      
-      try {
-        Bukkit.getWorld(worldName).getWorldBorder().setSize(((boolean) worldBorders.get(worldName) ? plugin.advancements.size() * 5 + ConfigManager.<Integer>readFromConfig("config", "starting-size") : 60000000), 1);
-      } catch (NullPointerException e) {
-        // If we couldn't get the world, log it
-        Bukkit.getLogger().severe("Invalid world name found in 'config.yml/borders': " + worldName);
-      }
-    }
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+    if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+    plugin.completionCache.preload(event.getUniqueId());
   }
   
   /**
-   * Helper function to get the amount of advancements a player has completed.<br>
-   * For some reason this isn't a built-in function. I'm not sure why, but oh well.
+   * Forgets the preloaded advancement snapshot of a player whose login was denied, for example by the whitelist
    *
-   * @param player The player to check for completed advancements
-   * @return The number of advancements the {@code player} has completed.
+   * @param event The {@link PlayerLoginEvent} passed to this function automatically
    * @author sh0ckR6
-   * @since 1.0
+   * @since latest
+   */
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPlayerLogin(PlayerLoginEvent event) {
+    if (event.getResult() == PlayerLoginEvent.Result.ALLOWED) return;
+    plugin.completionCache.discardPreload(event.getPlayer().getUniqueId());
+  }
+  
+  /**
+   * Saves a leaving player's advancement snapshot so their next join can skip a full rescan
+   *
+   * @param event The {@link PlayerQuitEvent} passed to this function automatically
+   * @author sh0ckR6
+   * @since latest
    */
-  private int getCompletedAdvancementsCount(Player player) {
-    return getCompletedAdvancements(player).size();
+  @EventHandler
+  public void onPlayerQuit(PlayerQuitEvent event) {
+    plugin.awardScheduler.cancel(event.getPlayer().getUniqueId());
+    plugin.completionCache.saveAndEvict(event.getPlayer().getUniqueId());
   }
   
   /**
-   * Helper function for retrieving a list of valid advancements that a {@link Player} has completed.<br>
+   * Helper function for retrieving the valid advancements that a {@link Player} has completed.<br>
    *
    * Example: Loop through all a player's completed advancements and print them to Bukkit's logger<br>
    * <code>
-   * for ({@link Advancement} completedAdvancement : getCompletedAdvancements(player) {<br>
-   *   Bukkit.getLogger().info(completedAdvancement.getKey().toString());<br>
+   * BitSet completed = getCompletedAdvancements(player);<br>
+   * for (int ordinal = completed.nextSetBit(0); ordinal &gt;= 0; ordinal = completed.nextSetBit(ordinal + 1)) {<br>
+   *   Bukkit.getLogger().info(plugin.catalog.get(ordinal).getKey().toString());<br>
    * }
    * </code>
    *
    * @param player The player to check completed advancements for
-   * @return A list of the player's completed advancements (if any)
+   * @return The catalog ordinals of the player's completed advancements (if any)
    * @author sh0ckR6
    * @since 1.0
    */
-  private List<Advancement> getCompletedAdvancements(Player player) {
-    // Loop through all advancements and return a list of valid advancements that the player has completed.
-    List<Advancement> completedAdvancements = new ArrayList<>();
-    Iterator<Advancement> it = Bukkit.advancementIterator();
-    while (it.hasNext()) {
-      Advancement advancement = it.next();
-      if (!isValidAdvancement(advancement)) continue;
-      if (player.getAdvancementProgress(advancement).isDone()) {
-        completedAdvancements.add(advancement);
+  private BitSet getCompletedAdvancements(Player player) {
+    // Loop through all valid advancements in the catalog and return the ones the player has completed.
+    BitSet completedAdvancements = new BitSet(plugin.catalog.size());
+    for (int ordinal = 0; ordinal < plugin.catalog.size(); ordinal++) {
+      if (player.getAdvancementProgress(plugin.catalog.get(ordinal)).isDone()) {
+        completedAdvancements.set(ordinal);
       }
     }
     return completedAdvancements;
   }
   
   /**
-   * Helper function for determining if an {@link Advancement} is actually an advancement<br>
-   * For some reason recipe unlocks are considered {@link Advancement}s and  I think
-   * I lost my mind trying to solve this for over a solid 2-3 hours.
+   * Helper function for retrieving a {@link Player}'s snapshot of completed advancements.<br>
+   * If the player has no snapshot for the current catalog, their progress is scanned with
+   * {@link #getCompletedAdvancements(Player)} and cached. Otherwise every advancement the snapshot claims is checked
+   * against the player's progress, since it may have been revoked since the snapshot was taken.
    *
-   * @param advancement The advancement to check
-   * @return If the {@code advancement} is a valid advancement
+   * @param player The player to get the snapshot of
+   * @return The catalog ordinals the player has completed. Changes to this {@link BitSet} are kept in the cache.
    * @author sh0ckR6
-   * @since 1.0
+   * @since latest
    */
-  private boolean isValidAdvancement(Advancement advancement) {
-    // Check the advancement category against a hardcoded list
-    // Yes it needs to be hardcoded, I feel sorry for whoever has to manually check all the
-    // different advancement categories in like 3-4 major version updates for Minecraft.
-    // no this does not work with custom advancements, it's a Bukkit limitation
-    // for being coded this way, not my issue.
-    String advancementKey = advancement.getKey().getKey(); // First .getKey() is the location (vanilla or datapack), second .getKey() is the advancement category + name
-    return advancementKey.startsWith("story") ||
-           advancementKey.startsWith("nether") ||
-           advancementKey.startsWith("adventure") ||
-           advancementKey.startsWith("end") ||
-           advancementKey.startsWith("husbandry");
+  private BitSet getSnapshot(Player player) {
+    BitSet snapshot = plugin.completionCache.get(player.getUniqueId());
+    if (snapshot == null) {
+      snapshot = getCompletedAdvancements(player);
+      plugin.completionCache.put(player.getUniqueId(), snapshot);
+      return snapshot;
+    }
+    
+    // Advancements the snapshot doesn't claim are either shared, and queued for the player anyway, or left unchecked
+    for (int ordinal = snapshot.nextSetBit(0); ordinal >= 0; ordinal = snapshot.nextSetBit(ordinal + 1)) {
+      if (!player.getAdvancementProgress(plugin.catalog.get(ordinal)).isDone()) snapshot.clear(ordinal);
+    }
+    return snapshot;
   }
 }
@@ -2,23 +2,115 @@ package com.github.sh0ckr6.achievementborder.listeners;
 
 import com.destroystokyo.paper.event.entity.EntityAddToWorldEvent;
 import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import com.destroystokyo.paper.event.entity.PreCreatureSpawnEvent;
 import com.github.sh0ckr6.achievementborder.AchievementBorder;
+import com.github.sh0ckr6.achievementborder.border.BorderChangeEvent;
+import com.github.sh0ckr6.achievementborder.managers.ConfigKeys;
+import com.github.sh0ckr6.achievementborder.util.ChunkSweep;
+import com.github.sh0ckr6.achievementborder.util.LongLongHashMap;
 import org.bukkit.Bukkit;
-import org.bukkit.WorldBorder;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Monster;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.scheduler.BukkitTask;
 
-import java.util.logging.Level;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
- * Listener event to control the number of hostile mobs
+ * Listener event to control the number of hostile mobs.
+ * <br><br>
+ * The cap is enforced before a mob exists: natural and spawner spawns are aborted in {@link PreCreatureSpawnEvent},
+ * and every other spawn is cancelled in {@link CreatureSpawnEvent} before the mob is added to the world.
+ * <br><br>
+ * Hostile mobs are counted per world, against that world's own border, and per chunk, so that
+ * {@code mob-control.max-per-chunk} can stop every mob piling into one corner. Each world's cap is only recomputed
+ * when a {@link BorderChangeEvent} is called for it.
+ * <br><br>
+ * Events can be missed (for example when other plugins remove entities), and mobs that wander into another chunk
+ * aren't followed, so the counts are reconciled in the background by recounting
+ * {@code mob-control.reconcile-chunks-per-tick} loaded chunks per tick in a round-robin {@link ChunkSweep}. Mobs found
+ * in another chunk than the one they are counted in are moved to it, and every other correction is added to the drift
+ * metrics.
+ * <br><br>
+ * Mobs that already exist when the plugin is enabled are counted by a separate sweep over the bordered worlds,
+ * {@code mob-control.bootstrap-chunks-per-tick} chunks at a time. Until it finishes, only half of each world's cap is
+ * allowed, since some existing mobs haven't been counted yet. Existing mobs are never removed.
  *
  * @author gtaEPIC
  * @since 1.1
  */
 public class MobControl implements Listener {
+    /**
+     * Whether each {@link EntityType} is hostile, indexed by ordinal
+     *
+     * @since latest
+     */
+    private static final boolean[] HOSTILE_TYPES = new boolean[EntityType.values().length];
+
+    static {
+        for (EntityType type : EntityType.values()) {
+            HOSTILE_TYPES[type.ordinal()] = type.getEntityClass() != null && Monster.class.isAssignableFrom(type.getEntityClass());
+        }
+    }
+
+    /**
+     * The hostile mobs of a single world
+     *
+     * @since latest
+     */
+    private static class WorldMobs {
+        /**
+         * Number of hostile mobs by the key of the chunk they are in
+         *
+         * @since latest
+         */
+        private final LongLongHashMap chunkCounts = new LongLongHashMap();
+
+        /**
+         * The key of the chunk each hostile mob is in, by entity ID
+         *
+         * @since latest
+         */
+        private final LongLongHashMap entityChunks = new LongLongHashMap();
+
+        /**
+         * Number of hostile mobs in the world
+         *
+         * @since latest
+         */
+        private int total = 0;
+
+        /**
+         * The max number of hostile mobs allowed in the world
+         *
+         * @since latest
+         */
+        private int cap;
+
+        /**
+         * @param cap The max number of hostile mobs allowed in the world
+         * @since latest
+         */
+        private WorldMobs(int cap) {
+            this.cap = cap;
+        }
+    }
+
     /**
      * Reference to the plugin
      *
@@ -27,11 +119,74 @@ public class MobControl implements Listener {
     private final AchievementBorder plugin;
 
     /**
-    * Number of hostile mobs that are spawned
-    * 
-    * @since 1.1
-    */
-    private int hostileMobs = 0;
+     * Hostile mobs by world
+     *
+     * @since latest
+     */
+    private final Map<UUID, WorldMobs> worlds = new HashMap<>();
+
+    /**
+     * Largest number of hostile mobs a single chunk may hold, or 0 for no limit
+     *
+     * @since latest
+     */
+    private int maxPerChunk;
+
+    /**
+     * Number of natural and spawner spawns aborted before the mob was created
+     *
+     * @since latest
+     */
+    private long abortedSpawns = 0;
+
+    /**
+     * Number of other spawns cancelled before the mob was added to the world
+     *
+     * @since latest
+     */
+    private long cancelledSpawns = 0;
+
+    /**
+     * Recounts loaded chunks in the background
+     *
+     * @since latest
+     */
+    private final ChunkSweep reconciler;
+
+    /**
+     * Counts the mobs that already existed when the plugin was enabled
+     *
+     * @since latest
+     */
+    private final ChunkSweep bootstrap;
+
+    /**
+     * The task running {@link #bootstrap}, or null once it has finished
+     *
+     * @since latest
+     */
+    private BukkitTask bootstrapTask;
+
+    /**
+     * Total number of mobs the counts were corrected by since the plugin was enabled
+     *
+     * @since latest
+     */
+    private long totalDrift = 0;
+
+    /**
+     * Number of mobs the counts have been corrected by in the current sweep
+     *
+     * @since latest
+     */
+    private long sweepDrift = 0;
+
+    /**
+     * Number of mobs the counts were corrected by in the last complete sweep
+     *
+     * @since latest
+     */
+    private long lastSweepDrift = 0;
 
     /**
      * Registers this class as a {@link Listener} for the provided plugin
@@ -42,24 +197,73 @@ public class MobControl implements Listener {
     public MobControl(AchievementBorder plugin) {
         this.plugin = plugin;
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
-        for (Entity entity : Bukkit.getWorlds().get(0).getEntities()) {
-            onEntityAddToWorld(new EntityAddToWorldEvent(entity));
-        }
+        reconciler = new ChunkSweep(world -> true, 1, this::reconcile);
+        reconciler.setOnCycleComplete(() -> {
+            lastSweepDrift = sweepDrift;
+            sweepDrift = 0;
+        });
+        bootstrap = new ChunkSweep(plugin.borderUpdater::isBordered, 1, (world, chunk) -> {
+            for (Entity entity : chunk.getEntities()) {
+                track(entity);
+            }
+        });
+        bootstrap.setOnCycleComplete(() -> {
+            bootstrapTask.cancel();
+            bootstrapTask = null;
+        });
+        loadSettings();
+        Bukkit.getScheduler().runTaskTimer(plugin, reconciler::tick, 1, 1);
+        bootstrapTask = Bukkit.getScheduler().runTaskTimer(plugin, bootstrap::tick, 1, 1);
+    }
+
+    /**
+     * Read the mob control settings from the config
+     *
+     * @author gtaEPIC
+     * @since latest
+     */
+    public void loadSettings() {
+        maxPerChunk = ConfigKeys.MOB_CONTROL_MAX_PER_CHUNK.get();
+        reconciler.setChunksPerTick(ConfigKeys.MOB_CONTROL_RECONCILE_CHUNKS_PER_TICK.get());
+        bootstrap.setChunksPerTick(ConfigKeys.MOB_CONTROL_BOOTSTRAP_CHUNKS_PER_TICK.get());
     }
 
     /**
      * Calculates the number of Hostile Mobs should be allowed.
      *
+     * @param size The size of the world's border
      * @return The max number of Hostile Mobs allowed
      * @author gtaEPIC
      * @since 1.1
      */
-    private int getMaxHostiles() {
-        WorldBorder border = Bukkit.getWorlds().get(0).getWorldBorder();
-        double size = border.getSize();
+    private int getMaxHostiles(double size) {
         return size > 16 ? (int) size : 0;
     }
 
+    /**
+     * Get the hostile mobs of a world, starting to track the world if needed
+     *
+     * @param world The world
+     * @return The world's hostile mobs
+     * @author gtaEPIC
+     * @since latest
+     */
+    private WorldMobs mobsOf(World world) {
+        return worlds.computeIfAbsent(world.getUID(), uid -> new WorldMobs(getMaxHostiles(world.getWorldBorder().getSize())));
+    }
+
+    /**
+     * Recomputes a world's cap when its border changes
+     *
+     * @param event Border Change Event
+     * @author gtaEPIC
+     * @since latest
+     */
+    @EventHandler
+    public void onBorderChange(BorderChangeEvent event) {
+        mobsOf(event.getWorld()).cap = getMaxHostiles(event.getSize());
+    }
+
     /**
      * Checks to see if an entity is a hostile mob
      *
@@ -69,11 +273,73 @@ public class MobControl implements Listener {
      * @since 1.1
      */
     private boolean isHostile(Entity entity) {
-        return entity instanceof Monster;
+        return isHostile(entity.getType());
+    }
+
+    /**
+     * Checks to see if a type of entity is a hostile mob
+     *
+     * @param type The type to check
+     * @return True if hostile
+     * @author gtaEPIC
+     * @since latest
+     */
+    private boolean isHostile(EntityType type) {
+        return HOSTILE_TYPES[type.ordinal()];
+    }
+
+    /**
+     * Checks to see if another hostile mob may spawn at a location
+     *
+     * @param location Where the mob would spawn
+     * @return True if neither the world's nor the chunk's cap has been reached
+     * @author gtaEPIC
+     * @since latest
+     */
+    private boolean canSpawn(Location location) {
+        WorldMobs mobs = mobsOf(location.getWorld());
+        // Not every existing mob is counted yet, so leave room for the ones that haven't been
+        int cap = bootstrapTask == null ? mobs.cap : mobs.cap / 2;
+        if (cap < mobs.total + 1) return false;
+        if (maxPerChunk <= 0) return true;
+        return mobs.chunkCounts.get(Chunk.getChunkKey(location)) < maxPerChunk;
+    }
+
+    /**
+     * Aborts natural and spawner spawns of hostile mobs once the cap is reached, before the mob is created
+     *
+     * @param event Pre Creature Spawn Event
+     * @author gtaEPIC
+     * @since latest
+     */
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onPreCreatureSpawn(PreCreatureSpawnEvent event) {
+        if (!isHostile(event.getType())) return;
+        if (canSpawn(event.getSpawnLocation())) return;
+        event.setCancelled(true);
+        // Stop the spawner or spawn cycle from immediately trying again
+        event.setShouldAbortSpawn(true);
+        abortedSpawns++;
     }
 
     /**
-     * Runs to check every new entity that is added to the game
+     * Cancels any other spawn of a hostile mob once the cap is reached, before the mob is added to the world
+     *
+     * @param event Creature Spawn Event
+     * @author gtaEPIC
+     * @since latest
+     */
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onCreatureSpawn(CreatureSpawnEvent event) {
+        if (!isHostile(event.getEntityType())) return;
+        if (canSpawn(event.getLocation())) return;
+        event.setCancelled(true);
+        cancelledSpawns++;
+    }
+
+    /**
+     * Counts every hostile mob that is added to the game. Spawns over the cap have already been stopped, so anything
+     * that gets here (including mobs loaded with their chunk) is kept.
      *
      * @param event New Entity Event
      * @author gtaEPIC
@@ -81,9 +347,7 @@ public class MobControl implements Listener {
      */
     @EventHandler(ignoreCancelled = true)
     public void onEntityAddToWorld(EntityAddToWorldEvent event) {
-        if (!isHostile(event.getEntity())) return;
-        if (getMaxHostiles() < hostileMobs + 1) event.getEntity().remove(); // Cancel spawn
-        hostileMobs++;
+        track(event.getEntity());
     }
 
     /**
@@ -95,7 +359,235 @@ public class MobControl implements Listener {
      */
     @EventHandler(ignoreCancelled = true)
     public void onEntityRemoveFromWorld(EntityRemoveFromWorldEvent event) {
-        if (!isHostile(event.getEntity())) return;
-        hostileMobs--;
+        untrack(event.getEntity());
+    }
+
+    /**
+     * Counts the hostile mobs loaded with a chunk
+     *
+     * @param event Entities Load Event
+     * @author gtaEPIC
+     * @since latest
+     */
+    @EventHandler
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        for (Entity entity : event.getEntities()) {
+            track(entity);
+        }
+    }
+
+    /**
+     * Stops counting the hostile mobs unloaded with a chunk
+     *
+     * @param event Entities Unload Event
+     * @author gtaEPIC
+     * @since latest
+     */
+    @EventHandler
+    public void onEntitiesUnload(EntitiesUnloadEvent event) {
+        for (Entity entity : event.getEntities()) {
+            untrack(entity);
+        }
+    }
+
+    /**
+     * Forgets the hostile mobs of a world when it is unloaded
+     *
+     * @param event World Unload Event
+     * @author gtaEPIC
+     * @since latest
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        worlds.remove(event.getWorld().getUID());
+    }
+
+    /**
+     * Recounts the hostile mobs in a chunk and corrects the counts if they have drifted
+     *
+     * @param world The world the chunk is in
+     * @param chunk The chunk to recount
+     * @author gtaEPIC
+     * @since latest
+     */
+    private void reconcile(World world, Chunk chunk) {
+        WorldMobs mobs = mobsOf(world);
+        long chunkKey = chunk.getChunkKey();
+        Entity[] entities = chunk.getEntities();
+        int[] found = new int[entities.length];
+        int count = 0;
+        for (Entity entity : entities) {
+            if (!isHostile(entity) || !entity.isValid()) continue;
+            int entityId = entity.getEntityId();
+            found[count++] = entityId;
+            if (!mobs.entityChunks.containsKey(entityId)) {
+                // Counted below, as part of this chunk's drift
+                mobs.entityChunks.put(entityId, chunkKey);
+            } else if (mobs.entityChunks.get(entityId) != chunkKey) {
+                // Mobs that were teleported in from another chunk are counted here from now on, and not there
+                rehome(mobs, entityId, mobs.entityChunks.get(entityId), chunkKey);
+            }
+        }
+
+        long counted = mobs.chunkCounts.get(chunkKey);
+        if (count == counted) return;
+        long drift = Math.abs(count - counted);
+        totalDrift += drift;
+        sweepDrift += drift;
+        mobs.total += count - counted;
+        if (count == 0) {
+            mobs.chunkCounts.remove(chunkKey);
+        } else {
+            mobs.chunkCounts.put(chunkKey, count);
+        }
+
+        // Forget anything still recorded in this chunk that isn't here, it either left or was removed without an event.
+        // Mobs that left are picked up again when the sweep reaches the chunk they are in now.
+        int[] present = Arrays.copyOf(found, count);
+        Arrays.sort(present);
+        List<Long> stale = new ArrayList<>();
+        mobs.entityChunks.forEach((entityId, entityChunk) -> {
+            if (entityChunk == chunkKey && Arrays.binarySearch(present, (int) entityId) < 0) stale.add(entityId);
+        });
+        for (long entityId : stale) {
+            mobs.entityChunks.remove(entityId);
+        }
+    }
+
+    /**
+     * Start counting an entity if it is a hostile mob. Entities that are already counted are ignored, so the same
+     * entity can be reported by several events.
+     *
+     * @param entity The entity
+     * @author gtaEPIC
+     * @since latest
+     */
+    private void track(Entity entity) {
+        if (!isHostile(entity)) return;
+        WorldMobs mobs = mobsOf(entity.getWorld());
+        if (mobs.entityChunks.containsKey(entity.getEntityId())) return;
+        long chunkKey = Chunk.getChunkKey(entity.getLocation());
+        mobs.entityChunks.put(entity.getEntityId(), chunkKey);
+        mobs.chunkCounts.addTo(chunkKey, 1);
+        mobs.total++;
+    }
+
+    /**
+     * Move a counted hostile mob from one chunk to another
+     *
+     * @param mobs The world's hostile mobs
+     * @param entityId The mob's entity ID
+     * @param from The key of the chunk the mob is counted in
+     * @param to The key of the chunk the mob is in now
+     * @author gtaEPIC
+     * @since latest
+     */
+    private void rehome(WorldMobs mobs, int entityId, long from, long to) {
+        if (from == to) return;
+        mobs.entityChunks.put(entityId, to);
+        mobs.chunkCounts.addTo(from, -1);
+        mobs.chunkCounts.addTo(to, 1);
+    }
+
+    /**
+     * Stop counting an entity if it is counted
+     *
+     * @param entity The entity
+     * @author gtaEPIC
+     * @since latest
+     */
+    private void untrack(Entity entity) {
+        if (!isHostile(entity)) return;
+        WorldMobs mobs = worlds.get(entity.getWorld().getUID());
+        if (mobs == null || !mobs.entityChunks.containsKey(entity.getEntityId())) return;
+        long chunkKey = mobs.entityChunks.remove(entity.getEntityId());
+        mobs.chunkCounts.addTo(chunkKey, -1);
+        mobs.total--;
+    }
+
+    /**
+     * @param world The world
+     * @return Number of hostile mobs in the world
+     * @author gtaEPIC
+     * @since latest
+     */
+    public int getHostileCount(World world) {
+        WorldMobs mobs = worlds.get(world.getUID());
+        return mobs == null ? 0 : mobs.total;
+    }
+
+    /**
+     * @param world The world
+     * @return Number of chunks in the world that hold at least one hostile mob
+     * @author gtaEPIC
+     * @since latest
+     */
+    public int getOccupiedChunks(World world) {
+        WorldMobs mobs = worlds.get(world.getUID());
+        return mobs == null ? 0 : mobs.chunkCounts.size();
+    }
+
+    /**
+     * @param world The world
+     * @return The max number of hostile mobs allowed in the world
+     * @author gtaEPIC
+     * @since latest
+     */
+    public int getHostileCap(World world) {
+        return mobsOf(world).cap;
+    }
+
+    /**
+     * @return Total number of mobs the counts were corrected by since the plugin was enabled
+     * @author gtaEPIC
+     * @since latest
+     */
+    public long getTotalDrift() {
+        return totalDrift;
+    }
+
+    /**
+     * @return Number of mobs the counts were corrected by in the last complete sweep
+     * @author gtaEPIC
+     * @since latest
+     */
+    public long getLastSweepDrift() {
+        return lastSweepDrift;
+    }
+
+    /**
+     * @return True while the mobs that existed when the plugin was enabled are still being counted
+     * @author gtaEPIC
+     * @since latest
+     */
+    public boolean isBootstrapping() {
+        return bootstrapTask != null;
+    }
+
+    /**
+     * @return Number of complete reconciliation sweeps since the plugin was enabled
+     * @author gtaEPIC
+     * @since latest
+     */
+    public long getCompletedSweeps() {
+        return reconciler.getCompletedCycles();
+    }
+
+    /**
+     * @return Number of natural and spawner spawns aborted before the mob was created
+     * @author gtaEPIC
+     * @since latest
+     */
+    public long getAbortedSpawns() {
+        return abortedSpawns;
+    }
+
+    /**
+     * @return Number of other spawns cancelled before the mob was added to the world
+     * @author gtaEPIC
+     * @since latest
+     */
+    public long getCancelledSpawns() {
+        return cancelledSpawns;
     }
 }
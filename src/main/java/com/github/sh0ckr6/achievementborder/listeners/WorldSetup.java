@@ -1,39 +1,82 @@
 package com.github.sh0ckr6.achievementborder.listeners;
 
 import com.github.sh0ckr6.achievementborder.AchievementBorder;
-import com.github.sh0ckr6.achievementborder.managers.ConfigManager;
+import com.github.sh0ckr6.achievementborder.managers.ConfigKeys;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
 /**
- * Listener class to handle events relating to any setup required
+ * Listener class to handle events relating to any setup required.<br><br>
+ *
+ * The spawn is prepared as soon as the plugin is enabled: a safe spot is picked near the main world's spawn, the
+ * chunks around it are loaded in the background, the starter logs are placed and the border is centered on it. The
+ * result is saved to {@code config.yml/setup-spawn}, so the first player to join only has to be teleported there.
  *
  * @author sh0ckR6
  * @since 1.0
  */
 public class WorldSetup implements Listener {
-  
+
+  /**
+   * How far from the world's spawn to look for a safe place to start, in blocks
+   *
+   * @since latest
+   */
+  private static final int SEARCH_RADIUS = 8;
+
+  /**
+   * Solid blocks that are still unsafe to start on
+   *
+   * @since latest
+   */
+  private static final Set<Material> UNSAFE_GROUND = EnumSet.of(Material.CACTUS, Material.MAGMA_BLOCK, Material.CAMPFIRE, Material.SOUL_CAMPFIRE, Material.SWEET_BERRY_BUSH);
+
   /**
    * A reference to the plugin
    *
    * @since 1.0
    */
   private AchievementBorder plugin;
-  
+
   /**
    * False if the setup has not been completed yet
    *
    * @since 1.1
    */
-  private boolean setupCompleted = false;
-  
+  private boolean setupCompleted;
+
   /**
-   * Register this class as a {@link Listener} for the provided plugin
+   * Where the first player starts, or null while the spawn is still being prepared
+   *
+   * @since latest
+   */
+  private Location spawn;
+
+  /**
+   * Players who joined before the spawn was ready
+   *
+   * @since latest
+   */
+  private final List<UUID> waiting = new ArrayList<>();
+
+  /**
+   * Register this class as a {@link Listener} for the provided plugin and prepare the spawn if that hasn't been done
    *
    * @param plugin The plugin to register this class under
    * @author sh0ckR6
@@ -42,8 +85,16 @@ public class WorldSetup implements Listener {
   public WorldSetup(AchievementBorder plugin) {
     this.plugin = plugin;
     plugin.getServer().getPluginManager().registerEvents(this, plugin);
+
+    setupCompleted = ConfigKeys.SETUP_COMPLETE.get();
+    if (setupCompleted) return;
+    spawn = ConfigKeys.SETUP_SPAWN.get();
+    if (spawn == null || spawn.getWorld() == null) {
+      spawn = null;
+      prepareSpawn(Bukkit.getWorlds().get(0));
+    }
   }
-  
+
   /**
    * Perform first-time setup once a player logs on for the first time.
    *
@@ -54,26 +105,101 @@ public class WorldSetup implements Listener {
   @EventHandler(priority = EventPriority.LOWEST)
   public void onPlayerJoin(PlayerJoinEvent event) {
     // Only continue if this is first time setup
-    if (setupCompleted) return; // Check variable to see if setup has been completed.
-    if (ConfigManager.readFromConfig("config", "setup-complete")) return; // Check the config's result and return if the config says we've completed setup.
-    
-    // Get the border location from the player's spawn and initialize the border
-    Player player = event.getPlayer();
-    Location playerSpawnLocation = player.getLocation();
-    Location borderLocation = new Location(playerSpawnLocation.getWorld(), Math.floor(playerSpawnLocation.getX()) + 0.5d, playerSpawnLocation.getY(), Math.floor(playerSpawnLocation.getZ()) + 0.5d);
-  
-    player.getWorld().getWorldBorder().setCenter(borderLocation);
-  
-    // Move the player so that they can't get out of the border
-    player.teleport(borderLocation);
-  
-    // Give the player three wood logs underneath them to guarantee a start
-    for (int i = 1; i <= 3; i++) {
-      player.getWorld().getBlockAt(new Location(playerSpawnLocation.getWorld(), playerSpawnLocation.getX(), playerSpawnLocation.getY() - i, playerSpawnLocation.getZ())).setType(Material.OAK_LOG);
+    if (setupCompleted) return;
+
+    if (spawn == null) {
+      // The spawn is still being prepared, the player is moved once it's ready
+      waiting.add(event.getPlayer().getUniqueId());
+      return;
     }
-    
+    completeSetup(List.of(event.getPlayer()));
+  }
+
+  /**
+   * Helper function to find, load and build the starting spot in the background
+   *
+   * @param world The world to start in
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void prepareSpawn(World world) {
+    Location worldSpawn = world.getSpawnLocation();
+
+    // Load every chunk the search could reach without blocking the main thread
+    List<CompletableFuture<Chunk>> chunks = new ArrayList<>();
+    for (int x = (worldSpawn.getBlockX() - SEARCH_RADIUS) >> 4; x <= (worldSpawn.getBlockX() + SEARCH_RADIUS) >> 4; x++) {
+      for (int z = (worldSpawn.getBlockZ() - SEARCH_RADIUS) >> 4; z <= (worldSpawn.getBlockZ() + SEARCH_RADIUS) >> 4; z++) {
+        chunks.add(world.getChunkAtAsync(x, z));
+      }
+    }
+
+    // Paper completes chunk requests on the main thread, so the world can be changed directly once they're all loaded
+    CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).thenRun(() -> {
+      Location ground = findSafeGround(world, worldSpawn.getBlockX(), worldSpawn.getBlockZ());
+
+      // Give the player three wood logs underneath them to guarantee a start
+      for (int i = 0; i < 3; i++) {
+        world.getBlockAt(ground.getBlockX(), ground.getBlockY() - i, ground.getBlockZ()).setType(Material.OAK_LOG);
+      }
+
+      Location borderLocation = new Location(world, ground.getBlockX() + 0.5d, ground.getBlockY() + 1, ground.getBlockZ() + 0.5d);
+      world.getWorldBorder().setCenter(borderLocation);
+      world.setSpawnLocation(borderLocation);
+      plugin.borderUpdater.resendAll();
+
+      spawn = borderLocation;
+      ConfigKeys.SETUP_SPAWN.set(spawn);
+
+      List<Player> players = new ArrayList<>();
+      for (UUID uuid : waiting) {
+        Player player = Bukkit.getPlayer(uuid);
+        if (player != null) players.add(player);
+      }
+      waiting.clear();
+      if (!players.isEmpty()) completeSetup(players);
+    });
+  }
+
+  /**
+   * Helper function to find the safe column closest to a position, searching outwards up to {@link #SEARCH_RADIUS}
+   *
+   * @param world The world to search in
+   * @param centerX The x coordinate to start searching from
+   * @param centerZ The z coordinate to start searching from
+   * @return The highest block of the closest safe column, or of the center column if none are safe
+   * @author sh0ckR6
+   * @since latest
+   */
+  private Location findSafeGround(World world, int centerX, int centerZ) {
+    for (int radius = 0; radius <= SEARCH_RADIUS; radius++) {
+      for (int dx = -radius; dx <= radius; dx++) {
+        for (int dz = -radius; dz <= radius; dz++) {
+          // Only check the ring at this radius, the inside has already been checked
+          if (Math.abs(dx) != radius && Math.abs(dz) != radius) continue;
+          Block ground = world.getHighestBlockAt(centerX + dx, centerZ + dz);
+          if (ground.getType().isSolid() && !UNSAFE_GROUND.contains(ground.getType())) return ground.getLocation();
+        }
+      }
+    }
+    // Nothing safe nearby (for example in an ocean), the logs will have to do
+    return world.getHighestBlockAt(centerX, centerZ).getLocation();
+  }
+
+  /**
+   * Helper function to move the first players to the prepared spawn and mark setup as complete
+   *
+   * @param players The players to move
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void completeSetup(List<Player> players) {
+    // Move the players so that they can't get out of the border
+    for (Player player : players) {
+      player.teleportAsync(spawn);
+    }
+
     // Mark that we've completed setup
     setupCompleted = true;
-    ConfigManager.setInConfig("config", "setup-complete", true);
+    ConfigKeys.SETUP_COMPLETE.set(true);
   }
 }
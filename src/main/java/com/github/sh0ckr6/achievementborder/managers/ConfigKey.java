@@ -0,0 +1,217 @@
+package com.github.sh0ckr6.achievementborder.managers;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A typed handle to a single value in a configuration.<br><br>
+ *
+ * The value is looked up and converted the first time it is read, then cached until any configuration is reloaded or
+ * edited through {@link ConfigManager}. Reading a cached value costs a single generation check, with no name lookup,
+ * path parsing or casting. Missing values and values of the wrong type read as the key's default.
+ *
+ * @param <T> The type of the value
+ * @author sh0ckR6
+ * @since latest
+ */
+public final class ConfigKey<T> {
+
+  /**
+   * A converted value and the {@link ConfigManager} generation it was read in
+   *
+   * @param generation The generation the value was read in
+   * @param value The converted value
+   * @param <T> The type of the value
+   * @author sh0ckR6
+   * @since latest
+   */
+  private record Cached<T>(int generation, T value) {}
+
+  /**
+   * The name of the configuration the value is in
+   *
+   * @since latest
+   */
+  private final String configName;
+
+  /**
+   * The path of the value
+   *
+   * @since latest
+   */
+  private final String path;
+
+  /**
+   * The value used when the configured one is missing or invalid, may be null
+   *
+   * @since latest
+   */
+  private final T defaultValue;
+
+  /**
+   * Converts the raw configured value, returning null if it is invalid
+   *
+   * @since latest
+   */
+  private final Function<Object, T> converter;
+
+  /**
+   * The last value read, or null if it hasn't been read yet
+   *
+   * @since latest
+   */
+  private volatile Cached<T> cached;
+
+  /**
+   * Creates a new key
+   *
+   * @param configName The name of the configuration the value is in
+   * @param path The path of the value
+   * @param defaultValue The value used when the configured one is missing or invalid, may be null
+   * @param converter Converts the raw configured value, returning null if it is invalid
+   * @author sh0ckR6
+   * @since latest
+   */
+  private ConfigKey(String configName, String path, T defaultValue, Function<Object, T> converter) {
+    this.configName = configName;
+    this.path = path;
+    this.defaultValue = defaultValue;
+    this.converter = converter;
+  }
+
+  /**
+   * Create a key for a value that is used as it was read
+   *
+   * @param configName The name of the configuration the value is in
+   * @param path The path of the value
+   * @param type The type of the value
+   * @param defaultValue The value used when the configured one is missing or of another type, may be null
+   * @param <T> The type of the value
+   * @return The new key
+   * @author sh0ckR6
+   * @since latest
+   */
+  public static <T> ConfigKey<T> of(String configName, String path, Class<T> type, T defaultValue) {
+    return new ConfigKey<>(configName, path, defaultValue, value -> type.isInstance(value) ? type.cast(value) : null);
+  }
+
+  /**
+   * @param configName The name of the configuration the value is in
+   * @param path The path of the value
+   * @param defaultValue The value used when the configured one is missing or invalid
+   * @return A new key for a boolean value
+   * @author sh0ckR6
+   * @since latest
+   */
+  public static ConfigKey<Boolean> ofBoolean(String configName, String path, boolean defaultValue) {
+    return of(configName, path, Boolean.class, defaultValue);
+  }
+
+  /**
+   * @param configName The name of the configuration the value is in
+   * @param path The path of the value
+   * @param defaultValue The value used when the configured one is missing or invalid
+   * @return A new key for a string value
+   * @author sh0ckR6
+   * @since latest
+   */
+  public static ConfigKey<String> ofString(String configName, String path, String defaultValue) {
+    return of(configName, path, String.class, defaultValue);
+  }
+
+  /**
+   * @param configName The name of the configuration the value is in
+   * @param path The path of the value
+   * @param defaultValue The value used when the configured one is missing or invalid
+   * @return A new key for an integer value, any configured number is truncated
+   * @author sh0ckR6
+   * @since latest
+   */
+  public static ConfigKey<Integer> ofInt(String configName, String path, int defaultValue) {
+    return new ConfigKey<>(configName, path, defaultValue, value -> value instanceof Number number ? number.intValue() : null);
+  }
+
+  /**
+   * @param configName The name of the configuration the value is in
+   * @param path The path of the value
+   * @param defaultValue The value used when the configured one is missing or invalid
+   * @return A new key for a decimal value, which also accepts configured integers
+   * @author sh0ckR6
+   * @since latest
+   */
+  public static ConfigKey<Double> ofDouble(String configName, String path, double defaultValue) {
+    return new ConfigKey<>(configName, path, defaultValue, value -> value instanceof Number number ? number.doubleValue() : null);
+  }
+
+  /**
+   * @param configName The name of the configuration the value is in
+   * @param path The path of the value
+   * @param defaultValue The value used when the configured one is missing or invalid
+   * @return A new key for a list of strings, any other list elements are converted to strings
+   * @author sh0ckR6
+   * @since latest
+   */
+  public static ConfigKey<List<String>> ofStringList(String configName, String path, List<String> defaultValue) {
+    return new ConfigKey<>(configName, path, defaultValue, value -> value instanceof List<?> list ? list.stream().map(String::valueOf).toList() : null);
+  }
+
+  /**
+   * Read the value, converting it only if a configuration has been reloaded or edited since it was last read
+   *
+   * @return The value, or the default if it is missing or invalid
+   * @author sh0ckR6
+   * @since latest
+   */
+  public T get() {
+    Cached<T> current = cached;
+    int generation = ConfigManager.getGeneration();
+    if (current != null && current.generation() == generation) return current.value();
+
+    T value = null;
+    if (ConfigManager.configurationExists(configName)) {
+      value = converter.apply(ConfigManager.readFromConfig(configName, path));
+    }
+    if (value == null) value = defaultValue;
+    // Tagged with the generation from before the read, so an edit made during the read is picked up next time
+    cached = new Cached<>(generation, value);
+    return value;
+  }
+
+  /**
+   * Set the value in its configuration
+   *
+   * @param value The new value
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void set(T value) {
+    ConfigManager.setInConfig(configName, path, value);
+  }
+
+  /**
+   * @return The name of the configuration the value is in
+   * @author sh0ckR6
+   * @since latest
+   */
+  public String getConfigName() {
+    return configName;
+  }
+
+  /**
+   * @return The path of the value
+   * @author sh0ckR6
+   * @since latest
+   */
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * @return The value used when the configured one is missing or invalid, may be null
+   * @author sh0ckR6
+   * @since latest
+   */
+  public T getDefault() {
+    return defaultValue;
+  }
+}
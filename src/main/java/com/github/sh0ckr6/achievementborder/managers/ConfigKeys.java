@@ -0,0 +1,304 @@
+package com.github.sh0ckr6.achievementborder.managers;
+
+import com.github.sh0ckr6.achievementborder.advancements.AdvancementCatalog;
+import org.bukkit.Location;
+
+import java.util.List;
+
+/**
+ * Every value read from <code>config.yml</code> by path.<br><br>
+ *
+ * Each key's default is also written to the file by the plugin when it is missing, so the defaults here are the
+ * plugin's defaults. Sections that are read as a whole, like <code>borders</code> and <code>growth</code>, are not
+ * listed.
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+public final class ConfigKeys {
+
+  /**
+   * The name of the main configuration
+   *
+   * @since latest
+   */
+  public static final String CONFIG = "config";
+
+  /**
+   * If the first player has been moved to the prepared spawn
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Boolean> SETUP_COMPLETE = ConfigKey.ofBoolean(CONFIG, "setup-complete", false);
+
+  /**
+   * The spawn prepared by world setup, null until it has been prepared
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Location> SETUP_SPAWN = ConfigKey.of(CONFIG, "setup-spawn", Location.class, null);
+
+  /**
+   * Size of the border before any advancements are completed
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Integer> STARTING_SIZE = ConfigKey.ofInt(CONFIG, "starting-size", 1);
+
+  /**
+   * Keys of every shared advancement
+   *
+   * @since latest
+   */
+  public static final ConfigKey<List<String>> ADVANCEMENTS = ConfigKey.ofStringList(CONFIG, "advancements", List.of());
+
+  /**
+   * Compact form of the shared advancements, only valid for an unchanged catalog
+   *
+   * @since latest
+   */
+  public static final ConfigKey<String> ADVANCEMENT_DATA = ConfigKey.ofString(CONFIG, "advancement-data", "");
+
+  /**
+   * Rules selecting the advancements that count towards the border
+   *
+   * @since latest
+   */
+  public static final ConfigKey<List<String>> ADVANCEMENT_CATEGORIES = ConfigKey.ofStringList(CONFIG, "advancement-categories", AdvancementCatalog.DEFAULT_CATEGORIES);
+
+  /**
+   * Time the award scheduler may spend per tick, in milliseconds
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Double> AWARD_BUDGET_MS = ConfigKey.ofDouble(CONFIG, "award-budget-ms", 2.0);
+
+  /**
+   * Ticks between border updates while awards are being granted
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Integer> AWARD_BORDER_INTERVAL = ConfigKey.ofInt(CONFIG, "award-border-interval", 20);
+
+  /**
+   * If advancements granted to keep players in sync are announced in chat
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Boolean> ANNOUNCE_SYNCED_ADVANCEMENTS = ConfigKey.ofBoolean(CONFIG, "announce-synced-advancements", false);
+
+  /**
+   * If chunks are generated ahead of the border
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Boolean> PREGENERATION_ENABLED = ConfigKey.ofBoolean(CONFIG, "pregeneration.enabled", true);
+
+  /**
+   * How many advancements ahead of the border chunks are generated for
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Integer> PREGENERATION_LOOKAHEAD = ConfigKey.ofInt(CONFIG, "pregeneration.lookahead", 3);
+
+  /**
+   * Largest number of chunks being generated at once
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Integer> PREGENERATION_MAX_CONCURRENT = ConfigKey.ofInt(CONFIG, "pregeneration.max-concurrent", 4);
+
+  /**
+   * Milliseconds per tick above which generation pauses
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Double> PREGENERATION_MAX_MSPT = ConfigKey.ofDouble(CONFIG, "pregeneration.max-mspt", 40.0);
+
+  /**
+   * Largest number of chunks queued per border change
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Integer> PREGENERATION_MAX_CHUNKS = ConfigKey.ofInt(CONFIG, "pregeneration.max-chunks", 4096);
+
+  /**
+   * If view distances are scaled to the border
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Boolean> VIEW_DISTANCE_ENABLED = ConfigKey.ofBoolean(CONFIG, "view-distance.enabled", false);
+
+  /**
+   * Smallest view distance given to a player
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Integer> VIEW_DISTANCE_MIN = ConfigKey.ofInt(CONFIG, "view-distance.min", 2);
+
+  /**
+   * Largest view distance given to a player, 0 for the server's
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Integer> VIEW_DISTANCE_MAX = ConfigKey.ofInt(CONFIG, "view-distance.max", 0);
+
+  /**
+   * Extra chunks sent past the border without being ticked
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Integer> VIEW_DISTANCE_NO_TICK_MARGIN = ConfigKey.ofInt(CONFIG, "view-distance.no-tick-margin", 1);
+
+  /**
+   * If the chunks inside small borders are kept loaded instead of the spawn area
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Boolean> CHUNK_TICKETS_ENABLED = ConfigKey.ofBoolean(CONFIG, "chunk-tickets.enabled", true);
+
+  /**
+   * Largest number of chunks kept loaded per world
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Integer> CHUNK_TICKETS_MAX_CHUNKS = ConfigKey.ofInt(CONFIG, "chunk-tickets.max-chunks", 256);
+
+  /**
+   * If nether portal travel is kept inside the destination's border
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Boolean> PORTALS_ENABLED = ConfigKey.ofBoolean(CONFIG, "portals.enabled", true);
+
+  /**
+   * Largest number of hostile mobs per chunk
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Integer> MOB_CONTROL_MAX_PER_CHUNK = ConfigKey.ofInt(CONFIG, "mob-control.max-per-chunk", 8);
+
+  /**
+   * Chunks checked per tick when reconciling hostile mob counts
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Integer> MOB_CONTROL_RECONCILE_CHUNKS_PER_TICK = ConfigKey.ofInt(CONFIG, "mob-control.reconcile-chunks-per-tick", 4);
+
+  /**
+   * Chunks counted per tick while the existing mobs are counted
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Integer> MOB_CONTROL_BOOTSTRAP_CHUNKS_PER_TICK = ConfigKey.ofInt(CONFIG, "mob-control.bootstrap-chunks-per-tick", 16);
+
+  /**
+   * If each world's spawn limits are scaled to its border
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Boolean> SPAWN_LIMITS_ENABLED = ConfigKey.ofBoolean(CONFIG, "spawn-limits.enabled", true);
+
+  /**
+   * How many times longer the ticks between spawn attempts may become
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Integer> SPAWN_LIMITS_MAX_INTERVAL_FACTOR = ConfigKey.ofInt(CONFIG, "spawn-limits.max-interval-factor", 20);
+
+  /**
+   * If drops are merged when a border gets crowded
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Boolean> DROPS_ENABLED = ConfigKey.ofBoolean(CONFIG, "drops.enabled", true);
+
+  /**
+   * Drops allowed per block of border area before merging
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Double> DROPS_PER_BLOCK = ConfigKey.ofDouble(CONFIG, "drops.per-block", 0.5);
+
+  /**
+   * Drops always allowed before merging, however small the border
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Integer> DROPS_MIN = ConfigKey.ofInt(CONFIG, "drops.min", 32);
+
+  /**
+   * Size of the cells drops are merged within, in blocks
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Integer> DROPS_CELL_SIZE = ConfigKey.ofInt(CONFIG, "drops.cell-size", 4);
+
+  /**
+   * If entities outside the border are handled
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Boolean> CULLING_ENABLED = ConfigKey.ofBoolean(CONFIG, "culling.enabled", true);
+
+  /**
+   * Chunks checked per tick for entities outside the border
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Integer> CULLING_CHUNKS_PER_TICK = ConfigKey.ofInt(CONFIG, "culling.chunks-per-tick", 8);
+
+  /**
+   * Rule for hostile mobs outside the border
+   *
+   * @since latest
+   */
+  public static final ConfigKey<String> CULLING_HOSTILE = ConfigKey.ofString(CONFIG, "culling.hostile", "remove");
+
+  /**
+   * Rule for items and experience orbs outside the border
+   *
+   * @since latest
+   */
+  public static final ConfigKey<String> CULLING_DROPS = ConfigKey.ofString(CONFIG, "culling.drops", "remove");
+
+  /**
+   * Rule for every other entity outside the border
+   *
+   * @since latest
+   */
+  public static final ConfigKey<String> CULLING_OTHER = ConfigKey.ofString(CONFIG, "culling.other", "ignore");
+
+  /**
+   * Largest total size of the files cached by {@link ConfigManager#readFromConfig(java.io.File, String)}, in kilobytes
+   *
+   * @since latest
+   */
+  public static final ConfigKey<Integer> FILE_CACHE_MAX_KB = ConfigKey.ofInt(CONFIG, "file-cache.max-kb", 1024);
+
+  /**
+   * Every key above, in the order their defaults are written to the file
+   *
+   * @since latest
+   */
+  public static final List<ConfigKey<?>> ALL = List.of(
+      SETUP_COMPLETE, SETUP_SPAWN, STARTING_SIZE, ADVANCEMENTS, ADVANCEMENT_DATA, ADVANCEMENT_CATEGORIES,
+      AWARD_BUDGET_MS, AWARD_BORDER_INTERVAL, ANNOUNCE_SYNCED_ADVANCEMENTS,
+      PREGENERATION_ENABLED, PREGENERATION_LOOKAHEAD, PREGENERATION_MAX_CONCURRENT, PREGENERATION_MAX_MSPT, PREGENERATION_MAX_CHUNKS,
+      VIEW_DISTANCE_ENABLED, VIEW_DISTANCE_MIN, VIEW_DISTANCE_MAX, VIEW_DISTANCE_NO_TICK_MARGIN,
+      CHUNK_TICKETS_ENABLED, CHUNK_TICKETS_MAX_CHUNKS,
+      PORTALS_ENABLED,
+      MOB_CONTROL_MAX_PER_CHUNK, MOB_CONTROL_RECONCILE_CHUNKS_PER_TICK, MOB_CONTROL_BOOTSTRAP_CHUNKS_PER_TICK,
+      SPAWN_LIMITS_ENABLED, SPAWN_LIMITS_MAX_INTERVAL_FACTOR,
+      DROPS_ENABLED, DROPS_PER_BLOCK, DROPS_MIN, DROPS_CELL_SIZE,
+      CULLING_ENABLED, CULLING_CHUNKS_PER_TICK, CULLING_HOSTILE, CULLING_DROPS, CULLING_OTHER,
+      FILE_CACHE_MAX_KB
+  );
+
+  /**
+   * This class only holds constants
+   *
+   * @since latest
+   */
+  private ConfigKeys() {}
+}
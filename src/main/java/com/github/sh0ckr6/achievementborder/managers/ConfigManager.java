@@ -1,13 +1,26 @@
 package com.github.sh0ckr6.achievementborder.managers;
 
 import com.github.sh0ckr6.achievementborder.AchievementBorder;
+import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /** Utilities for configuration files
  *
@@ -16,11 +29,54 @@ import java.util.*;
  */
 public class ConfigManager {
   
-  /** List of cached {@link Configuration}s
+  /** Cached {@link Configuration}s, by lower case name
    *
    * @since 1.1
    */
-  private static List<Configuration> configurations = new ArrayList<>();
+  private static final Map<String, Configuration> configurations = new ConcurrentHashMap<>();
+  
+  /** Incremented every time a configuration is reloaded or edited, which invalidates every cached {@link ConfigKey}
+   *
+   * @since latest
+   */
+  private static volatile int generation = 0;
+  
+  /** {@link Configuration}s edited by {@link #setInConfig(String, String, Object)} that haven't been snapshotted for saving
+   * yet. Only used on the main thread.
+   *
+   * @since latest
+   */
+  private static final Set<Configuration> dirty = new LinkedHashSet<>();
+  
+  /** The latest snapshot of each file waiting to be written by {@link #saver}
+   *
+   * @since latest
+   */
+  private static final Map<File, String> pendingWrites = new ConcurrentHashMap<>();
+  
+  /** The latest write queued for each file. The saver runs writes in order, so once it is done so are the earlier ones.
+   *
+   * @since latest
+   */
+  private static final Map<File, Future<?>> queuedWrites = new ConcurrentHashMap<>();
+  
+  /** Longest a reload waits on the main thread for the files it reloads to be saved, in milliseconds
+   *
+   * @since latest
+   */
+  private static final long RELOAD_WAIT_MILLIS = 500;
+  
+  /** Writes snapshots to disk off the main thread, created when first needed
+   *
+   * @since latest
+   */
+  private static ExecutorService saver;
+  
+  /** Files parsed by {@link #readFromConfig(File, String)}
+   *
+   * @since latest
+   */
+  private static final YamlFileCache fileCache = new YamlFileCache(ConfigKeys.FILE_CACHE_MAX_KB.getDefault() * 1024L);
   
   /** Loads all {@link Configuration}s and caches them
    * @param plugin The current plugin
@@ -29,18 +85,35 @@ public class ConfigManager {
    * @since 1.1
    */
   public static void loadAllConfigs(JavaPlugin plugin) {
+    configurations.putAll(readAllConfigs(plugin));
+    invalidateKeys();
+  }
+  
+  /** Helper function to read every {@link Configuration} in the data folder
+   * @param plugin The current plugin
+   *
+   * @return The read configurations, by lower case name
+   * @author Kalcoder (sh0ckR6)
+   * @since latest
+   */
+  private static Map<String, Configuration> readAllConfigs(JavaPlugin plugin) {
+    Map<String, Configuration> loaded = new HashMap<>();
     if (!plugin.getDataFolder().exists()) {
       System.out.println("Making data folder!");
       plugin.getDataFolder().mkdir();
     }
-    if (plugin.getDataFolder().listFiles() == null) return;
+    if (plugin.getDataFolder().listFiles() == null) return loaded;
     System.out.println("Files were found!");
     
     for (File file : plugin.getDataFolder().listFiles()) {
+      // Skip anything that isn't a configuration, like the player snapshot folder
+      if (!file.isFile() || !file.getName().endsWith(".yml")) continue;
       System.out.println(file.getAbsolutePath());
       YamlConfiguration configuration = YamlConfiguration.loadConfiguration(file);
-      configurations.add(new Configuration(configuration, file, file.getName().substring(0, file.getName().length() - 4)));
+      String name = file.getName().substring(0, file.getName().length() - 4);
+      loaded.put(normalize(name), new Configuration(configuration, file, name));
     }
+    return loaded;
   }
   
   /** Creates a new {@link Configuration}
@@ -64,7 +137,8 @@ public class ConfigManager {
       e.printStackTrace();
     }
     
-    configurations.add(new Configuration(YamlConfiguration.loadConfiguration(configFile), configFile, configName));
+    configurations.put(normalize(configName), new Configuration(YamlConfiguration.loadConfiguration(configFile), configFile, configName));
+    invalidateKeys();
   }
   
   /** Checks if a {@link Configuration} exists
@@ -75,7 +149,7 @@ public class ConfigManager {
    * @since 1.1
    */
   public static boolean configurationExists(String configName) {
-    return configurations.stream().anyMatch(configuration -> configuration.name.equals(configName));
+    return configurations.containsKey(normalize(configName));
   }
   
   /**
@@ -104,10 +178,7 @@ public class ConfigManager {
    * @since 1.1
    */
   public static Set<String> getAllKeysFromConfig(String name, Boolean deep) throws MissingResourceException {
-    for (Configuration configuration : configurations) {
-      if (configuration.name.equalsIgnoreCase(name)) return configuration.yamlConfig.getKeys(deep);
-    }
-    throw new MissingResourceException("The requested configuration file could not be found!", name + ".yml", name);
+    return getConfig(name).yamlConfig.getKeys(deep);
   }
   
   /** Read a value from a configuration
@@ -120,10 +191,7 @@ public class ConfigManager {
    * @since 1.1
    */
   public static <T> T readFromConfig(String name, String path) throws MissingResourceException {
-    for (Configuration configuration : configurations) {
-      if (configuration.name.equals(name)) return (T) configuration.yamlConfig.get(path);
-    }
-    throw new MissingResourceException("The requested configuration file could not be found!", name + ".yml", name);
+    return (T) getConfig(name).yamlConfig.get(path);
   }
   
   /** Read a value from a configuration
@@ -138,7 +206,8 @@ public class ConfigManager {
     return config.get(path);
   }
   
-  /** Read a value from a configuration
+  /** Read a value from a configuration. The file is only parsed again if it has changed since it was last read, see
+   * {@link #getFileCache()}. Lists, maps and sections are copies, so changing them doesn't change the file.
    * @param configFile The configuration's file
    * @param path The path to read from
    *
@@ -147,10 +216,12 @@ public class ConfigManager {
    * @since 1.1
    */
   public static Object readFromConfig(File configFile, String path) {
-    return YamlConfiguration.loadConfiguration(configFile).get(path);
+    fileCache.setMaxBytes(ConfigKeys.FILE_CACHE_MAX_KB.get() * 1024L);
+    return fileCache.read(configFile, path);
   }
   
-  /** Set a value in a configuration
+  /** Set a value in a configuration. The file is saved off the main thread at the end of the tick, see
+   * {@link #flushConfigs()}.
    * @param name The name of the configuration
    * @param path The path to set the value to
    * @param value The value to set
@@ -160,30 +231,141 @@ public class ConfigManager {
    * @since 1.1
    */
   public static <T> void setInConfig(String name, String path, T value) throws MissingResourceException {
-    for (Configuration configuration : configurations) {
-      if (configuration.name.equalsIgnoreCase(name)) {
-        configuration.yamlConfig.set(path, value);
-        try {
-          configuration.yamlConfig.save(configuration.file);
-          return;
-        } catch (IOException e) {
-          e.printStackTrace();
-        }
+    Configuration configuration = getConfig(name);
+    configuration.yamlConfig.set(path, value);
+    invalidateKeys();
+    markDirty(configuration);
+  }
+  
+  /**
+   * Write every edited {@link Configuration} to disk and wait for the writes to finish, for example when the plugin is
+   * disabled. Must be called on the main thread.
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public static void flushConfigs() {
+    snapshotDirty();
+    if (saver == null) return;
+    saver.shutdown();
+    try {
+      if (!saver.awaitTermination(10, TimeUnit.SECONDS)) {
+        Bukkit.getLogger().warning("Timed out waiting for configuration files to be saved");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    saver = null;
+    queuedWrites.clear();
+  }
+  
+  /**
+   * Helper function to queue any unsaved edits and wait a short while for the given files to be written, so they can be
+   * reloaded without losing them. Only the writes to these files are waited for, and never for longer than
+   * {@link #RELOAD_WAIT_MILLIS} in total. Must be called on the main thread.
+   *
+   * @param files The files about to be reloaded
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static void awaitWrites(Collection<File> files) {
+    snapshotDirty();
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RELOAD_WAIT_MILLIS);
+    for (File file : files) {
+      Future<?> write = file == null ? null : queuedWrites.get(file);
+      if (write == null) continue;
+      try {
+        write.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        queuedWrites.remove(file, write);
+      } catch (TimeoutException e) {
+        Bukkit.getLogger().warning("Configuration file " + file.getName() + " is still being saved, reloading it anyway");
+      } catch (ExecutionException e) {
+        queuedWrites.remove(file, write);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
       }
     }
-    throw new MissingResourceException("The requested configuration file could not be found!", name + ".yml", name);
+  }
+  
+  /**
+   * Helper function to save a {@link Configuration} at the end of the tick, together with any other edits made in the
+   * same tick.<br>
+   * While the plugin is disabled nothing can be scheduled, so the edit is saved by the next {@link #flushConfigs()}.
+   *
+   * @param configuration The edited configuration
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static void markDirty(Configuration configuration) {
+    if (!dirty.add(configuration) || dirty.size() > 1) return;
+    JavaPlugin plugin = JavaPlugin.getProvidingPlugin(ConfigManager.class);
+    if (plugin.isEnabled()) Bukkit.getScheduler().runTask(plugin, ConfigManager::snapshotDirty);
+  }
+  
+  /**
+   * Helper function to snapshot every edited {@link Configuration} on the main thread and queue it to be written.
+   * A file that is already queued has its snapshot replaced, so it is only written once.
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static void snapshotDirty() {
+    if (dirty.isEmpty()) return;
+    if (saver == null) {
+      saver = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AchievementBorder config saver");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    for (Configuration configuration : dirty) {
+      File file = configuration.file;
+      if (pendingWrites.put(file, configuration.yamlConfig.saveToString()) == null) {
+        queuedWrites.put(file, saver.submit(() -> write(file)));
+      }
+    }
+    dirty.clear();
+  }
+  
+  /**
+   * Helper function to write the latest snapshot of a file. The snapshot is written to a temporary file first and then
+   * moved over the file, so a crash or full disk never leaves a half written configuration behind.
+   *
+   * @param file The file to write
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static void write(File file) {
+    String data = pendingWrites.remove(file);
+    if (data == null) return;
+    Path target = file.toPath();
+    Path temp = target.resolveSibling(file.getName() + ".tmp");
+    try {
+      Files.writeString(temp, data, StandardCharsets.UTF_8);
+      try {
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      Bukkit.getLogger().warning("Could not save configuration file " + file.getName() + ": " + e.getMessage());
+    }
   }
   
   /**
    * Get a {@link Configuration} by name
    *
-   * @param name The name of the configuration
-   * @return The found configuration, if any
+   * @param name The name of the configuration, in any case
+   * @return The found configuration
+   * @throws MissingResourceException if configuration was not found
    * @author sh0ckR6
    * @since 1.1
    */
   public static Configuration getConfig(String name) throws MissingResourceException {
-    return configurations.stream().filter(config -> config.name.equals(name)).findFirst().get();
+    Configuration configuration = configurations.get(normalize(name));
+    if (configuration == null) throw new MissingResourceException("The requested configuration file could not be found!", name + ".yml", name);
+    return configuration;
   }
   
   /**
@@ -211,8 +393,13 @@ public class ConfigManager {
    * @since 1.1
    */
   public static void reloadConfigs(AchievementBorder plugin) {
-    configurations = new ArrayList<>();
-    loadAllConfigs(plugin);
+    // Edits that haven't been written yet would otherwise be lost
+    awaitWrites(configurations.values().stream().map(configuration -> configuration.file).toList());
+    // Replace the configurations in place rather than clearing first, so readers on other threads never find them missing
+    Map<String, Configuration> loaded = readAllConfigs(plugin);
+    configurations.putAll(loaded);
+    configurations.keySet().retainAll(loaded.keySet());
+    invalidateKeys();
   }
   
   /**
@@ -225,25 +412,60 @@ public class ConfigManager {
    * @since latest
    */
   public static void reloadConfig(String name, AchievementBorder plugin) throws MissingResourceException {
-    if (configurations.stream().filter(config -> config.name.equals(name)).findFirst().isEmpty()) {
-      throw new MissingResourceException("The requested configuration file could not be found!", name + ".yml", name);
-    }
-    
-    Configuration configuration = configurations.stream().filter(config -> config.name.equals(name)).findFirst().get();
-    
-    configurations.remove(configuration);
+    Configuration configuration = getConfig(name);
+    awaitWrites(List.of(configuration.file));
     configuration.yamlConfig = YamlConfiguration.loadConfiguration(configuration.file);
-    configurations.add(configuration);
+    invalidateKeys();
   }
   
   /**
    * Return a list of all registered {@link Configuration}s
    *
-   * @return The list of registered {@link Configuration}s
+   * @return A copy of the list of registered {@link Configuration}s
    * @author sh0ckR6
    * @since latest
    */
   public static List<Configuration> getConfigurations() {
-    return configurations;
+    return new ArrayList<>(configurations.values());
+  }
+  
+  /**
+   * @return The cache of files parsed by {@link #readFromConfig(File, String)}
+   * @author sh0ckR6
+   * @since latest
+   */
+  public static YamlFileCache getFileCache() {
+    return fileCache;
+  }
+  
+  /**
+   * @return The current generation, which changes whenever a configuration is reloaded or edited
+   * @author sh0ckR6
+   * @since latest
+   */
+  static int getGeneration() {
+    return generation;
+  }
+  
+  /**
+   * Helper function to make every {@link ConfigKey} read its value again
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static synchronized void invalidateKeys() {
+    generation++;
+  }
+  
+  /**
+   * Helper function to turn a configuration name into its registry key
+   *
+   * @param name The name of the configuration
+   * @return The name in lower case
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static String normalize(String name) {
+    return name.toLowerCase(Locale.ROOT);
   }
 }
\ No newline at end of file
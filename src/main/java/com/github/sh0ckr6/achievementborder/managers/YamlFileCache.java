@@ -0,0 +1,283 @@
+package com.github.sh0ckr6.achievementborder.managers;
+
+import org.bukkit.Location;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.Vector;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parsed YAML files, so that reading from a file by path doesn't parse the whole file every time.<br><br>
+ *
+ * Files are cached by canonical path and only reused while their size and modification time are unchanged. The least
+ * recently used files are evicted once the cached files add up to more than the size limit. The limit is measured in
+ * the size of the files on disk, as an estimate of how much memory the parsed files take up.<br><br>
+ *
+ * The parsed files are shared between every caller and are never modified, so they can be read from any thread.
+ * {@link #read(File, String)} hands out copies of lists, maps, sections and mutable values like locations and items,
+ * so that a caller changing what it read can't change what everyone else reads.
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+public class YamlFileCache {
+
+  /**
+   * A parsed file and the state of the file it was parsed from
+   *
+   * @param config The parsed file
+   * @param length The size of the file when it was parsed, in bytes
+   * @param lastModified The modification time of the file when it was parsed
+   * @author sh0ckR6
+   * @since latest
+   */
+  private record Entry(YamlConfiguration config, long length, long lastModified) {}
+
+  /**
+   * Parsed files by canonical path, from least to most recently used
+   *
+   * @since latest
+   */
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * Total size of the cached files, in bytes
+   *
+   * @since latest
+   */
+  private long cachedBytes = 0;
+
+  /**
+   * Largest total size of the cached files, in bytes
+   *
+   * @since latest
+   */
+  private long maxBytes;
+
+  /**
+   * Number of reads answered from the cache
+   *
+   * @since latest
+   */
+  private long hits = 0;
+
+  /**
+   * Number of reads that had to parse the file
+   *
+   * @since latest
+   */
+  private long misses = 0;
+
+  /**
+   * Creates a new, empty cache
+   *
+   * @param maxBytes Largest total size of the cached files, in bytes
+   * @author sh0ckR6
+   * @since latest
+   */
+  public YamlFileCache(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Read a value from a file, parsing the file again only if it isn't cached or has changed since it was cached
+   *
+   * @param file The file
+   * @param path The path to read from
+   * @return A copy of the value that was read, or null if there is none
+   * @author sh0ckR6
+   * @since latest
+   */
+  public Object read(File file, String path) {
+    return copy(get(file).get(path));
+  }
+
+  /**
+   * Helper function to get a parsed file, parsing it again only if it isn't cached or has changed since it was cached.
+   * The result is shared and must not be modified.
+   *
+   * @param file The file
+   * @return The parsed file
+   * @author sh0ckR6
+   * @since latest
+   */
+  private YamlConfiguration get(File file) {
+    String key = canonicalPath(file);
+    long length = file.length();
+    long lastModified = file.lastModified();
+
+    synchronized (this) {
+      Entry entry = entries.get(key);
+      if (entry != null && entry.length() == length && entry.lastModified() == lastModified) {
+        hits++;
+        return entry.config();
+      }
+      misses++;
+    }
+
+    // Parsed outside the lock so other files can still be read in the meantime
+    YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+    synchronized (this) {
+      Entry previous = entries.remove(key);
+      if (previous != null) cachedBytes -= previous.length();
+      // A file that doesn't exist was not parsed, and a file bigger than the whole cache would only evict everything
+      if (lastModified != 0 && length <= maxBytes) {
+        entries.put(key, new Entry(config, length, lastModified));
+        cachedBytes += length;
+        evict();
+      }
+    }
+    return config;
+  }
+
+  /**
+   * Change the size limit, evicting files if the cache is now over it
+   *
+   * @param maxBytes Largest total size of the cached files, in bytes
+   * @author sh0ckR6
+   * @since latest
+   */
+  public synchronized void setMaxBytes(long maxBytes) {
+    if (this.maxBytes == maxBytes) return;
+    this.maxBytes = maxBytes;
+    evict();
+  }
+
+  /**
+   * Forget every cached file
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public synchronized void clear() {
+    entries.clear();
+    cachedBytes = 0;
+  }
+
+  /**
+   * Helper function to evict the least recently used files until the cache is within its size limit
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void evict() {
+    Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+    while (cachedBytes > maxBytes && it.hasNext()) {
+      cachedBytes -= it.next().getValue().length();
+      it.remove();
+    }
+  }
+
+  /**
+   * Helper function to copy a value read from a shared file, so the caller can't modify the file's cached contents
+   *
+   * @param value The value
+   * @return A deep copy of lists, maps and sections, a clone of locations and items, and anything else as it is
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static Object copy(Object value) {
+    if (value instanceof ConfigurationSection section) {
+      MemoryConfiguration copy = new MemoryConfiguration();
+      copySection(section, copy);
+      return copy;
+    }
+    if (value instanceof List<?> list) {
+      List<Object> copy = new ArrayList<>(list.size());
+      for (Object element : list) {
+        copy.add(copy(element));
+      }
+      return copy;
+    }
+    if (value instanceof Map<?, ?> map) {
+      Map<Object, Object> copy = new LinkedHashMap<>();
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        copy.put(entry.getKey(), copy(entry.getValue()));
+      }
+      return copy;
+    }
+    if (value instanceof Location location) return location.clone();
+    if (value instanceof ItemStack item) return item.clone();
+    if (value instanceof Vector vector) return vector.clone();
+    return value;
+  }
+
+  /**
+   * Helper function to copy every value of a section into another, creating nested sections as they are found
+   *
+   * @param source The section to copy from
+   * @param target The section to copy into
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static void copySection(ConfigurationSection source, ConfigurationSection target) {
+    for (Map.Entry<String, Object> entry : source.getValues(false).entrySet()) {
+      if (entry.getValue() instanceof ConfigurationSection nested) {
+        copySection(nested, target.createSection(entry.getKey()));
+      } else {
+        target.set(entry.getKey(), copy(entry.getValue()));
+      }
+    }
+  }
+
+  /**
+   * Helper function to get the key of a file, so different paths to the same file share an entry
+   *
+   * @param file The file
+   * @return The file's canonical path, or its absolute path if that can't be resolved
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static String canonicalPath(File file) {
+    try {
+      return file.getCanonicalPath();
+    } catch (IOException e) {
+      return file.getAbsolutePath();
+    }
+  }
+
+  /**
+   * @return Number of reads answered from the cache
+   * @author sh0ckR6
+   * @since latest
+   */
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  /**
+   * @return Number of reads that had to parse the file
+   * @author sh0ckR6
+   * @since latest
+   */
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  /**
+   * @return Number of files cached
+   * @author sh0ckR6
+   * @since latest
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return Total size of the cached files, in bytes
+   * @author sh0ckR6
+   * @since latest
+   */
+  public synchronized long getCachedBytes() {
+    return cachedBytes;
+  }
+}
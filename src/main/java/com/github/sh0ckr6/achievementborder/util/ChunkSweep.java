@@ -0,0 +1,232 @@
+package com.github.sh0ckr6.achievementborder.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Visits every loaded chunk of a set of worlds in a round-robin sweep, a few chunks at a time.<br><br>
+ *
+ * Each call to {@link #tick()} visits at most {@code chunksPerTick} chunks, so work that would otherwise scan every
+ * loaded chunk or entity at once can be spread over many ticks. A world's loaded chunks are listed when the sweep
+ * reaches that world, and chunks that have been unloaded by the time they are reached are skipped.
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+public class ChunkSweep {
+
+  /**
+   * An action run on each chunk visited by a {@link ChunkSweep}
+   *
+   * @since latest
+   */
+  @FunctionalInterface
+  public interface ChunkVisitor {
+    /**
+     * @param world The world the chunk is in
+     * @param chunk The loaded chunk
+     * @since latest
+     */
+    void visit(World world, Chunk chunk);
+  }
+
+  /**
+   * Selects which worlds are swept
+   *
+   * @since latest
+   */
+  private final Predicate<World> worldFilter;
+
+  /**
+   * Run on every visited chunk
+   *
+   * @since latest
+   */
+  private final ChunkVisitor visitor;
+
+  /**
+   * Run every time a cycle finishes, or null
+   *
+   * @since latest
+   */
+  private Runnable onCycleComplete;
+
+  /**
+   * Largest number of chunks visited per tick
+   *
+   * @since latest
+   */
+  private int chunksPerTick;
+
+  /**
+   * Worlds left to sweep in the current cycle
+   *
+   * @since latest
+   */
+  private final List<UUID> worlds = new ArrayList<>();
+
+  /**
+   * The world being swept
+   *
+   * @since latest
+   */
+  private UUID currentWorld;
+
+  /**
+   * Keys of the chunks that were loaded in {@link #currentWorld} when the sweep reached it
+   *
+   * @since latest
+   */
+  private long[] chunkKeys = new long[0];
+
+  /**
+   * Index of the next chunk to visit in {@link #chunkKeys}
+   *
+   * @since latest
+   */
+  private int chunkIndex = 0;
+
+  /**
+   * If a cycle has been started and not finished yet
+   *
+   * @since latest
+   */
+  private boolean inCycle = false;
+
+  /**
+   * Number of times every selected world has been swept
+   *
+   * @since latest
+   */
+  private long completedCycles = 0;
+
+  /**
+   * Creates a new sweep
+   *
+   * @param worldFilter Selects which worlds are swept
+   * @param chunksPerTick Largest number of chunks visited per tick
+   * @param visitor Run on every visited chunk
+   * @author sh0ckR6
+   * @since latest
+   */
+  public ChunkSweep(Predicate<World> worldFilter, int chunksPerTick, ChunkVisitor visitor) {
+    this.worldFilter = worldFilter;
+    this.chunksPerTick = chunksPerTick;
+    this.visitor = visitor;
+  }
+
+  /**
+   * Visit the next few chunks of the sweep, starting a new cycle if the last one has finished
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void tick() {
+    int budget = chunksPerTick;
+    // Bounded so that a cycle with nothing loaded can't spin forever
+    int cyclesStarted = 0;
+    while (budget > 0) {
+      if (chunkIndex >= chunkKeys.length && !nextWorld()) {
+        if (cyclesStarted++ > 0) return;
+        if (inCycle) completeCycle();
+        for (World world : Bukkit.getWorlds()) {
+          if (worldFilter.test(world)) worlds.add(world.getUID());
+        }
+        inCycle = nextWorld();
+        if (!inCycle) {
+          // Nothing to sweep, which still counts as a complete sweep
+          completeCycle();
+          return;
+        }
+      }
+
+      World world = Bukkit.getWorld(currentWorld);
+      if (world == null) {
+        chunkIndex = chunkKeys.length;
+        continue;
+      }
+      while (budget > 0 && chunkIndex < chunkKeys.length) {
+        long key = chunkKeys[chunkIndex++];
+        int chunkX = (int) key;
+        int chunkZ = (int) (key >> 32);
+        if (!world.isChunkLoaded(chunkX, chunkZ)) continue;
+        visitor.visit(world, world.getChunkAt(chunkX, chunkZ));
+        budget--;
+      }
+    }
+  }
+
+  /**
+   * Helper function to record that a cycle has finished
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void completeCycle() {
+    completedCycles++;
+    if (onCycleComplete != null) onCycleComplete.run();
+  }
+
+  /**
+   * Helper function to move the sweep on to the next world of the cycle
+   *
+   * @return False if there are no worlds left in the cycle
+   * @author sh0ckR6
+   * @since latest
+   */
+  private boolean nextWorld() {
+    while (!worlds.isEmpty()) {
+      currentWorld = worlds.remove(worlds.size() - 1);
+      World world = Bukkit.getWorld(currentWorld);
+      if (world == null) continue;
+      Chunk[] chunks = world.getLoadedChunks();
+      chunkKeys = new long[chunks.length];
+      for (int i = 0; i < chunks.length; i++) {
+        chunkKeys[i] = chunks[i].getChunkKey();
+      }
+      chunkIndex = 0;
+      return true;
+    }
+    currentWorld = null;
+    chunkKeys = new long[0];
+    chunkIndex = 0;
+    return false;
+  }
+
+  /**
+   * Set an action to run every time every selected world has been swept
+   *
+   * @param onCycleComplete The action to run, or null for none
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void setOnCycleComplete(Runnable onCycleComplete) {
+    this.onCycleComplete = onCycleComplete;
+  }
+
+  /**
+   * Change how many chunks are visited per tick
+   *
+   * @param chunksPerTick Largest number of chunks visited per tick
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void setChunksPerTick(int chunksPerTick) {
+    this.chunksPerTick = chunksPerTick;
+  }
+
+  /**
+   * @return Number of times every selected world has been swept
+   * @author sh0ckR6
+   * @since latest
+   */
+  public long getCompletedCycles() {
+    return completedCycles;
+  }
+}
@@ -0,0 +1,321 @@
+package com.github.sh0ckr6.achievementborder.util;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from {@code long} keys to {@code long} values that never boxes either.<br><br>
+ *
+ * Entries are stored in two parallel arrays with open addressing and linear probing, and removal shifts later entries
+ * back instead of leaving tombstones. The key {@code 0} is used to mark empty slots, so its entry is stored separately.
+ * Looking up a missing key returns {@code 0}.
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+public class LongLongHashMap {
+
+  /**
+   * Fraction of the table that may be used before it grows
+   *
+   * @since latest
+   */
+  private static final float LOAD_FACTOR = 0.75f;
+
+  /**
+   * Keys, with {@code 0} marking an empty slot
+   *
+   * @since latest
+   */
+  private long[] keys;
+
+  /**
+   * Values, in the same slot as their key
+   *
+   * @since latest
+   */
+  private long[] values;
+
+  /**
+   * {@code keys.length - 1}, used to wrap slot indices
+   *
+   * @since latest
+   */
+  private int mask;
+
+  /**
+   * Number of entries stored in {@link #keys}, excluding the zero key
+   *
+   * @since latest
+   */
+  private int used = 0;
+
+  /**
+   * If the zero key has an entry
+   *
+   * @since latest
+   */
+  private boolean hasZeroKey = false;
+
+  /**
+   * Value of the zero key's entry
+   *
+   * @since latest
+   */
+  private long zeroValue = 0;
+
+  /**
+   * Creates a new, empty map
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public LongLongHashMap() {
+    this(16);
+  }
+
+  /**
+   * Creates a new, empty map that can hold a number of entries without growing
+   *
+   * @param expected The number of entries expected
+   * @author sh0ckR6
+   * @since latest
+   */
+  public LongLongHashMap(int expected) {
+    int capacity = Integer.highestOneBit(Math.max(4, (int) Math.ceil(expected / LOAD_FACTOR)) - 1) << 1;
+    keys = new long[capacity];
+    values = new long[capacity];
+    mask = capacity - 1;
+  }
+
+  /**
+   * Get the value of a key
+   *
+   * @param key The key
+   * @return The key's value, or {@code 0} if it has none
+   * @author sh0ckR6
+   * @since latest
+   */
+  public long get(long key) {
+    if (key == 0) return zeroValue;
+    int slot = find(key);
+    return slot < 0 ? 0 : values[slot];
+  }
+
+  /**
+   * Check if a key has an entry
+   *
+   * @param key The key
+   * @return True if the key has an entry
+   * @author sh0ckR6
+   * @since latest
+   */
+  public boolean containsKey(long key) {
+    if (key == 0) return hasZeroKey;
+    return find(key) >= 0;
+  }
+
+  /**
+   * Set the value of a key
+   *
+   * @param key The key
+   * @param value The new value
+   * @return The key's previous value, or {@code 0} if it had none
+   * @author sh0ckR6
+   * @since latest
+   */
+  public long put(long key, long value) {
+    if (key == 0) {
+      long previous = zeroValue;
+      hasZeroKey = true;
+      zeroValue = value;
+      return previous;
+    }
+
+    int slot = mix(key) & mask;
+    while (keys[slot] != 0) {
+      if (keys[slot] == key) {
+        long previous = values[slot];
+        values[slot] = value;
+        return previous;
+      }
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    if (++used > keys.length * LOAD_FACTOR) resize(keys.length << 1);
+    return 0;
+  }
+
+  /**
+   * Add to the value of a key, removing its entry if the value becomes {@code 0}.
+   * Convenient for maps of counts, which then only hold non-zero counts.
+   *
+   * @param key The key
+   * @param delta The amount to add
+   * @return The key's new value
+   * @author sh0ckR6
+   * @since latest
+   */
+  public long addTo(long key, long delta) {
+    long value = get(key) + delta;
+    if (value == 0) {
+      remove(key);
+    } else {
+      put(key, value);
+    }
+    return value;
+  }
+
+  /**
+   * Remove the entry of a key
+   *
+   * @param key The key
+   * @return The key's previous value, or {@code 0} if it had none
+   * @author sh0ckR6
+   * @since latest
+   */
+  public long remove(long key) {
+    if (key == 0) {
+      long previous = zeroValue;
+      hasZeroKey = false;
+      zeroValue = 0;
+      return previous;
+    }
+
+    int slot = find(key);
+    if (slot < 0) return 0;
+    long previous = values[slot];
+    used--;
+
+    // Shift later entries of the same probe run back, so lookups never stop at the gap
+    int gap = slot;
+    int next = (gap + 1) & mask;
+    while (keys[next] != 0) {
+      int home = mix(keys[next]) & mask;
+      // Only move the entry if the gap lies between its home slot and where it is now
+      if (((next - home) & mask) >= ((next - gap) & mask)) {
+        keys[gap] = keys[next];
+        values[gap] = values[next];
+        gap = next;
+      }
+      next = (next + 1) & mask;
+    }
+    keys[gap] = 0;
+    values[gap] = 0;
+    return previous;
+  }
+
+  /**
+   * @return Number of entries in the map
+   * @author sh0ckR6
+   * @since latest
+   */
+  public int size() {
+    return used + (hasZeroKey ? 1 : 0);
+  }
+
+  /**
+   * @return True if the map has no entries
+   * @author sh0ckR6
+   * @since latest
+   */
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * Remove every entry
+   *
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void clear() {
+    Arrays.fill(keys, 0);
+    Arrays.fill(values, 0);
+    used = 0;
+    hasZeroKey = false;
+    zeroValue = 0;
+  }
+
+  /**
+   * Run an action on every entry, in no particular order. The map must not be changed while this runs.
+   *
+   * @param action The action to run with each key and value
+   * @author sh0ckR6
+   * @since latest
+   */
+  public void forEach(EntryConsumer action) {
+    if (hasZeroKey) action.accept(0, zeroValue);
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (keys[slot] != 0) action.accept(keys[slot], values[slot]);
+    }
+  }
+
+  /**
+   * Helper function to find the slot of a non-zero key
+   *
+   * @param key The key
+   * @return The key's slot, or {@code -1} if it has none
+   * @author sh0ckR6
+   * @since latest
+   */
+  private int find(long key) {
+    int slot = mix(key) & mask;
+    while (keys[slot] != 0) {
+      if (keys[slot] == key) return slot;
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  /**
+   * Helper function to move every entry into a table of a new size
+   *
+   * @param capacity The new size, a power of two
+   * @author sh0ckR6
+   * @since latest
+   */
+  private void resize(int capacity) {
+    long[] oldKeys = keys;
+    long[] oldValues = values;
+    keys = new long[capacity];
+    values = new long[capacity];
+    mask = capacity - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] == 0) continue;
+      int slot = mix(oldKeys[i]) & mask;
+      while (keys[slot] != 0) slot = (slot + 1) & mask;
+      keys[slot] = oldKeys[i];
+      values[slot] = oldValues[i];
+    }
+  }
+
+  /**
+   * Helper function to spread the bits of a key, since chunk keys and entity IDs are far from random
+   *
+   * @param key The key
+   * @return The key's hash
+   * @author sh0ckR6
+   * @since latest
+   */
+  private static int mix(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    hash ^= hash >>> 32;
+    return (int) (hash ^ (hash >>> 16));
+  }
+
+  /**
+   * An action run on each entry of a {@link LongLongHashMap}
+   *
+   * @since latest
+   */
+  @FunctionalInterface
+  public interface EntryConsumer {
+    /**
+     * @param key The entry's key
+     * @param value The entry's value
+     * @since latest
+     */
+    void accept(long key, long value);
+  }
+}
@@ -0,0 +1,173 @@
+package com.github.sh0ckr6.achievementborder.advancements;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.advancement.Advancement;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests for {@link AdvancementCatalog}
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+class AdvancementCatalogTest {
+
+  /**
+   * Only advancements matching a rule are cataloged, in key order, under the first rule they match
+   *
+   * @since latest
+   */
+  @Test
+  void buildClassifiesAndSorts() {
+    AdvancementCatalog catalog = catalog(List.of("story", "mypack:quests", "other:"),
+        "minecraft:story/root", "minecraft:recipes/misc/stick", "mypack:story/intro", "mypack:quests/b", "mypack:quests/a",
+        "mypack:hidden/x", "other:anything");
+
+    assertEquals(List.of("minecraft:story/root", "mypack:quests/a", "mypack:quests/b", "mypack:story/intro", "other:anything"), keys(catalog));
+    assertEquals(-1, catalog.ordinalOf(NamespacedKey.fromString("minecraft:recipes/misc/stick")));
+    assertEquals(-1, catalog.ordinalOf(NamespacedKey.fromString("mypack:hidden/x")));
+    assertEquals("story", catalog.getCategory(catalog.ordinalOf(NamespacedKey.fromString("mypack:story/intro"))));
+    assertEquals("mypack:quests", catalog.getCategory(catalog.ordinalOf(NamespacedKey.fromString("mypack:quests/a"))));
+    assertEquals("other:", catalog.getCategory(catalog.ordinalOf(NamespacedKey.fromString("other:anything"))));
+  }
+
+  /**
+   * Ordinals and the fingerprint don't depend on the order the server lists advancements in
+   *
+   * @since latest
+   */
+  @Test
+  void stableAcrossIterationOrder() {
+    AdvancementCatalog first = catalog(AdvancementCatalog.DEFAULT_CATEGORIES, "minecraft:story/root", "minecraft:end/root", "minecraft:nether/root");
+    AdvancementCatalog second = catalog(AdvancementCatalog.DEFAULT_CATEGORIES, "minecraft:nether/root", "minecraft:story/root", "minecraft:end/root");
+
+    assertEquals(first.getFingerprint(), second.getFingerprint());
+    assertEquals(keys(first), keys(second));
+    assertEquals(List.of("minecraft:end/root", "minecraft:nether/root", "minecraft:story/root"), keys(first));
+  }
+
+  /**
+   * Catalogs with different advancements have different fingerprints
+   *
+   * @since latest
+   */
+  @Test
+  void fingerprintChangesWithContents() {
+    AdvancementCatalog first = catalog(AdvancementCatalog.DEFAULT_CATEGORIES, "minecraft:story/root", "minecraft:end/root");
+    AdvancementCatalog second = catalog(AdvancementCatalog.DEFAULT_CATEGORIES, "minecraft:story/root", "minecraft:end/root", "minecraft:end/kill_dragon");
+    assertNotEquals(first.getFingerprint(), second.getFingerprint());
+  }
+
+  /**
+   * Encoded ordinals decode to the same set
+   *
+   * @since latest
+   */
+  @Test
+  void encodeDecodeRoundTrip() {
+    AdvancementCatalog catalog = numberedCatalog(100);
+    BitSet ordinals = new BitSet();
+    ordinals.set(0);
+    ordinals.set(37);
+    ordinals.set(99);
+
+    assertEquals(ordinals, catalog.decode(catalog.encode(ordinals)));
+    assertEquals(new BitSet(), catalog.decode(catalog.encode(new BitSet())));
+  }
+
+  /**
+   * Data written by another catalog, or that isn't valid, is never decoded
+   *
+   * @since latest
+   */
+  @Test
+  void decodeRejectsForeignOrInvalidData() {
+    AdvancementCatalog catalog = numberedCatalog(10);
+    AdvancementCatalog other = numberedCatalog(11);
+    BitSet ordinals = new BitSet();
+    ordinals.set(3);
+    String fingerprint = Integer.toHexString(catalog.getFingerprint());
+
+    assertNull(catalog.decode(other.encode(ordinals)));
+    assertNull(catalog.decode(null));
+    assertNull(catalog.decode(""));
+    assertNull(catalog.decode(Base64.getEncoder().encodeToString(ordinals.toByteArray())));
+    assertNull(catalog.decode(fingerprint + ":not base64!"));
+
+    // Ordinals past the end of the catalog can't belong to it
+    BitSet tooLong = new BitSet();
+    tooLong.set(10);
+    assertNull(catalog.decode(fingerprint + ':' + Base64.getEncoder().encodeToString(tooLong.toByteArray())));
+  }
+
+  /**
+   * Helper function to build a catalog from advancement keys
+   *
+   * @param rules The category rules
+   * @param keys The keys of the advancements known to the "server"
+   * @return The built catalog
+   * @since latest
+   */
+  private static AdvancementCatalog catalog(List<String> rules, String... keys) {
+    List<Advancement> advancements = new ArrayList<>();
+    for (String key : keys) {
+      advancements.add(advancement(NamespacedKey.fromString(key)));
+    }
+    return AdvancementCatalog.build(advancements.iterator(), rules);
+  }
+
+  /**
+   * Helper function to build a catalog of numbered story advancements
+   *
+   * @param size The number of advancements
+   * @return The built catalog
+   * @since latest
+   */
+  private static AdvancementCatalog numberedCatalog(int size) {
+    String[] keys = new String[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = "minecraft:story/" + i;
+    }
+    return catalog(AdvancementCatalog.DEFAULT_CATEGORIES, keys);
+  }
+
+  /**
+   * Helper function to create an advancement that only has a key
+   *
+   * @param key The advancement's key
+   * @return The advancement
+   * @since latest
+   */
+  private static Advancement advancement(NamespacedKey key) {
+    return (Advancement) Proxy.newProxyInstance(Advancement.class.getClassLoader(), new Class<?>[]{Advancement.class}, (proxy, method, args) -> switch (method.getName()) {
+      case "getKey" -> key;
+      case "toString" -> key.toString();
+      case "hashCode" -> key.hashCode();
+      case "equals" -> proxy == args[0];
+      default -> throw new UnsupportedOperationException(method.getName());
+    });
+  }
+
+  /**
+   * @param catalog A catalog
+   * @return The keys of the catalog's advancements, in ordinal order
+   * @since latest
+   */
+  private static List<String> keys(AdvancementCatalog catalog) {
+    List<String> keys = new ArrayList<>();
+    for (int ordinal = 0; ordinal < catalog.size(); ordinal++) {
+      keys.add(catalog.get(ordinal).getKey().toString());
+    }
+    return keys;
+  }
+}
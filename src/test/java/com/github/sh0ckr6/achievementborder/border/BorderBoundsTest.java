@@ -0,0 +1,124 @@
+package com.github.sh0ckr6.achievementborder.border;
+
+import org.bukkit.Location;
+import org.bukkit.WorldBorder;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link BorderBounds}
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+class BorderBoundsTest {
+
+  /**
+   * Allowed difference between expected and actual coordinates
+   *
+   * @since latest
+   */
+  private static final double DELTA = 1e-9;
+
+  /**
+   * Bounds are centered on the border's center
+   *
+   * @since latest
+   */
+  @Test
+  void ofBorder() {
+    BorderBounds bounds = BorderBounds.of(border(100.5, -20.5), 11);
+    assertEquals(new BorderBounds(95, -26, 106, -15), bounds);
+    assertEquals(11, bounds.size(), DELTA);
+    assertEquals(121, bounds.area(), DELTA);
+  }
+
+  /**
+   * The edges themselves are inside the border
+   *
+   * @since latest
+   */
+  @Test
+  void containsIncludesEdges() {
+    BorderBounds bounds = new BorderBounds(-5, -5, 5, 5);
+    assertTrue(bounds.contains(0, 0));
+    assertTrue(bounds.contains(-5, 5));
+    assertFalse(bounds.contains(5.01, 0));
+    assertFalse(bounds.contains(0, -5.01));
+  }
+
+  /**
+   * Locations are moved inside, away from the edge, and centered on axes too narrow for the margin
+   *
+   * @since latest
+   */
+  @Test
+  void clamp() {
+    BorderBounds bounds = new BorderBounds(-10, 0, 10, 1);
+    Location location = new Location(null, 50, 64, -30, 90, 10);
+
+    Location clamped = bounds.clamp(location, 1);
+    assertEquals(9, clamped.getX(), DELTA);
+    assertEquals(0.5, clamped.getZ(), DELTA);
+    assertEquals(64, clamped.getY(), DELTA);
+    assertEquals(90, clamped.getYaw(), DELTA);
+    // The original location is left alone
+    assertEquals(50, location.getX(), DELTA);
+
+    Location inside = bounds.clamp(new Location(null, 3, 64, 0.5), 1);
+    assertEquals(3, inside.getX(), DELTA);
+  }
+
+  /**
+   * A chunk overlaps the border only if some of its blocks are inside it
+   *
+   * @since latest
+   */
+  @Test
+  void overlapsChunk() {
+    BorderBounds bounds = new BorderBounds(-0.5, -0.5, 0.5, 0.5);
+    assertTrue(bounds.overlapsChunk(0, 0));
+    assertTrue(bounds.overlapsChunk(-1, -1));
+    assertFalse(bounds.overlapsChunk(1, 0));
+    assertFalse(bounds.overlapsChunk(0, -2));
+
+    BorderBounds aligned = new BorderBounds(0, 0, 16, 16);
+    assertTrue(aligned.overlapsChunk(0, 0));
+    assertFalse(aligned.overlapsChunk(1, 0));
+    assertFalse(aligned.overlapsChunk(-1, 0));
+  }
+
+  /**
+   * The chunk range covers every chunk that overlaps the border, including on negative coordinates
+   *
+   * @since latest
+   */
+  @Test
+  void chunkRange() {
+    assertArrayEquals(new int[]{-1, -1, 0, 0}, new BorderBounds(-0.5, -0.5, 0.5, 0.5).chunkRange());
+    assertArrayEquals(new int[]{0, 0, 0, 0}, new BorderBounds(0, 0, 16, 16).chunkRange());
+    assertArrayEquals(new int[]{-2, 0, 1, 2}, new BorderBounds(-17, 0, 17, 33).chunkRange());
+  }
+
+  /**
+   * Helper function to create a border that only has a center
+   *
+   * @param centerX The x coordinate of the center
+   * @param centerZ The z coordinate of the center
+   * @return The border
+   * @since latest
+   */
+  private static WorldBorder border(double centerX, double centerZ) {
+    Location center = new Location(null, centerX, 0, centerZ);
+    return (WorldBorder) Proxy.newProxyInstance(WorldBorder.class.getClassLoader(), new Class<?>[]{WorldBorder.class}, (proxy, method, args) -> {
+      if (method.getName().equals("getCenter")) return center.clone();
+      throw new UnsupportedOperationException(method.getName());
+    });
+  }
+}
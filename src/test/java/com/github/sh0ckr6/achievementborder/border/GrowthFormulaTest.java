@@ -0,0 +1,168 @@
+package com.github.sh0ckr6.achievementborder.border;
+
+import com.github.sh0ckr6.achievementborder.advancements.AdvancementCatalog;
+import org.bukkit.NamespacedKey;
+import org.bukkit.advancement.Advancement;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for {@link GrowthFormula}
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+class GrowthFormulaTest {
+
+  /**
+   * Allowed difference between expected and actual sizes
+   *
+   * @since latest
+   */
+  private static final double DELTA = 1e-9;
+
+  /**
+   * With no {@code growth} section every advancement is worth 5 blocks, like the border always used to grow
+   *
+   * @since latest
+   */
+  @Test
+  void defaultsGrowFiveBlocksPerAdvancement() {
+    GrowthFormula formula = GrowthFormula.compile(catalog("minecraft:story/a", "minecraft:story/b", "minecraft:story/c"), null, 1);
+    assertArrayEquals(new int[]{5, 5, 5}, formula.getWeights());
+    assertEquals(5, formula.getAverageWeight(), DELTA);
+    for (int completed = 0; completed <= 3; completed++) {
+      assertEquals(1 + completed * 5, formula.sizeAt(completed * 5L), DELTA);
+    }
+  }
+
+  /**
+   * An advancement's own weight beats its category's, which beats the default, and negative weights count as 0
+   *
+   * @since latest
+   */
+  @Test
+  void weightPrecedence() {
+    MemoryConfiguration config = new MemoryConfiguration();
+    config.set("growth.per-advancement", 2);
+    config.set("growth.categories.minecraft:end", 7);
+    config.set("growth.advancements.minecraft:end/kill_dragon", 50);
+    config.set("growth.advancements.minecraft:story/root", -3);
+    AdvancementCatalog catalog = catalog("minecraft:end/kill_dragon", "minecraft:end/root", "minecraft:nether/root", "minecraft:story/root");
+
+    GrowthFormula formula = GrowthFormula.compile(catalog, config.getConfigurationSection("growth"), 1);
+    // Ordinals are sorted by key
+    assertArrayEquals(new int[]{50, 7, 2, 0}, formula.getWeights());
+    assertEquals(59 / 4.0, formula.getAverageWeight(), DELTA);
+  }
+
+  /**
+   * Points past {@code diminishing-after} only count as {@code (points - after) ^ exponent} blocks
+   *
+   * @since latest
+   */
+  @Test
+  void diminishingGrowth() {
+    ConfigurationSection growth = growth(1, 10, 0.5, 60000000);
+    GrowthFormula formula = GrowthFormula.compile(numberedCatalog(100), growth, 1);
+
+    assertEquals(1 + 10, formula.sizeAt(10), DELTA);
+    assertEquals(1 + 10 + 4, formula.sizeAt(26), DELTA);
+    assertEquals(1 + 10 + Math.sqrt(90), formula.sizeAt(100), DELTA);
+  }
+
+  /**
+   * The size never goes past {@code max-size}, and points outside the table are clamped to its ends
+   *
+   * @since latest
+   */
+  @Test
+  void capsAndClamps() {
+    GrowthFormula formula = GrowthFormula.compile(numberedCatalog(10), growth(10, -1, 1, 51), 1);
+
+    assertEquals(1, formula.sizeAt(0), DELTA);
+    assertEquals(1, formula.sizeAt(-5), DELTA);
+    assertEquals(41, formula.sizeAt(40), DELTA);
+    assertEquals(51, formula.sizeAt(50), DELTA);
+    assertEquals(51, formula.sizeAt(100), DELTA);
+    // Past the total weight of the catalog, which is as far as the table goes
+    assertEquals(51, formula.sizeAt(1000), DELTA);
+  }
+
+  /**
+   * Catalogs too heavy for a lookup table are evaluated directly, with the same results
+   *
+   * @since latest
+   */
+  @Test
+  void heavyCatalogsSkipTheTable() {
+    GrowthFormula formula = GrowthFormula.compile(numberedCatalog(4), growth(1 << 20, 2_000_000, 0.5, 60000000), 1);
+
+    assertEquals(1 + 1_000_000, formula.sizeAt(1_000_000), DELTA);
+    assertEquals(1 + 2_000_000 + 1000, formula.sizeAt(3_000_000), DELTA);
+  }
+
+  /**
+   * Helper function to build a {@code growth} section
+   *
+   * @param perAdvancement Weight of every advancement
+   * @param diminishingAfter Points after which growth diminishes, negative to never diminish
+   * @param diminishingExponent Exponent applied to points past {@code diminishingAfter}
+   * @param maxSize Largest size of the border
+   * @return The section
+   * @since latest
+   */
+  private static ConfigurationSection growth(int perAdvancement, long diminishingAfter, double diminishingExponent, double maxSize) {
+    MemoryConfiguration config = new MemoryConfiguration();
+    config.set("growth.per-advancement", perAdvancement);
+    config.set("growth.diminishing-after", diminishingAfter);
+    config.set("growth.diminishing-exponent", diminishingExponent);
+    config.set("growth.max-size", maxSize);
+    return config.getConfigurationSection("growth");
+  }
+
+  /**
+   * Helper function to build a catalog of numbered story advancements
+   *
+   * @param size The number of advancements
+   * @return The built catalog
+   * @since latest
+   */
+  private static AdvancementCatalog numberedCatalog(int size) {
+    String[] keys = new String[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = "minecraft:story/" + i;
+    }
+    return catalog(keys);
+  }
+
+  /**
+   * Helper function to build a catalog with the default category rules
+   *
+   * @param keys The keys of the advancements
+   * @return The built catalog
+   * @since latest
+   */
+  private static AdvancementCatalog catalog(String... keys) {
+    List<Advancement> advancements = new ArrayList<>();
+    for (String key : keys) {
+      NamespacedKey namespacedKey = NamespacedKey.fromString(key);
+      advancements.add((Advancement) Proxy.newProxyInstance(Advancement.class.getClassLoader(), new Class<?>[]{Advancement.class}, (proxy, method, args) -> switch (method.getName()) {
+        case "getKey" -> namespacedKey;
+        case "toString" -> key;
+        case "hashCode" -> namespacedKey.hashCode();
+        case "equals" -> proxy == args[0];
+        default -> throw new UnsupportedOperationException(method.getName());
+      }));
+    }
+    return AdvancementCatalog.build(advancements.iterator(), AdvancementCatalog.DEFAULT_CATEGORIES);
+  }
+}
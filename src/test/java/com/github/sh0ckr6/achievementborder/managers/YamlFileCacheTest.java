@@ -0,0 +1,207 @@
+package com.github.sh0ckr6.achievementborder.managers;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link YamlFileCache}
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+class YamlFileCacheTest {
+
+  /**
+   * Folder the test files are written to, emptied after every test
+   *
+   * @since latest
+   */
+  @TempDir
+  Path folder;
+
+  /**
+   * A file is parsed once and then answered from the cache while it is unchanged
+   *
+   * @since latest
+   */
+  @Test
+  void unchangedFilesAreCached() throws IOException {
+    YamlFileCache cache = new YamlFileCache(1024 * 1024);
+    File file = write("a.yml", "size: 5\n");
+
+    assertEquals(5, cache.read(file, "size"));
+    assertEquals(5, cache.read(file, "size"));
+    assertEquals(1, cache.getMisses());
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.size());
+    assertEquals(file.length(), cache.getCachedBytes());
+  }
+
+  /**
+   * Different paths to the same file share an entry
+   *
+   * @since latest
+   */
+  @Test
+  void pathsAreCanonical() throws IOException {
+    YamlFileCache cache = new YamlFileCache(1024 * 1024);
+    File file = write("a.yml", "size: 5\n");
+
+    cache.read(file, "size");
+    cache.read(new File(folder.toFile(), "./a.yml"), "size");
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.size());
+  }
+
+  /**
+   * A file is parsed again once its size or modification time changes
+   *
+   * @since latest
+   */
+  @Test
+  void changedFilesAreParsedAgain() throws IOException {
+    YamlFileCache cache = new YamlFileCache(1024 * 1024);
+    File file = write("a.yml", "size: 5\n");
+    assertEquals(5, cache.read(file, "size"));
+
+    // A different length, so the change is seen even if the modification time doesn't move
+    write("a.yml", "size: 12\n");
+    assertEquals(12, cache.read(file, "size"));
+
+    // The same length, with only the modification time changed
+    write("a.yml", "size: 13\n");
+    assertTrue(file.setLastModified(file.lastModified() + 2000));
+    assertEquals(13, cache.read(file, "size"));
+
+    assertEquals(3, cache.getMisses());
+    assertEquals(1, cache.size());
+    assertEquals(file.length(), cache.getCachedBytes());
+  }
+
+  /**
+   * Files that don't exist read as empty and are never cached
+   *
+   * @since latest
+   */
+  @Test
+  void missingFilesAreNotCached() {
+    YamlFileCache cache = new YamlFileCache(1024 * 1024);
+    File file = new File(folder.toFile(), "missing.yml");
+
+    assertNull(cache.read(file, "size"));
+    assertNull(cache.read(file, "size"));
+    assertEquals(2, cache.getMisses());
+    assertEquals(0, cache.size());
+  }
+
+  /**
+   * The least recently used files are evicted once the cache is over its size limit, and files bigger than the whole
+   * cache are never cached
+   *
+   * @since latest
+   */
+  @Test
+  void evictsLeastRecentlyUsed() throws IOException {
+    File first = write("first.yml", "value: 1\n");
+    File second = write("second.yml", "value: 2\n");
+    File third = write("third.yml", "value: 3\n");
+    File big = write("big.yml", "value: " + "x".repeat(100) + "\n");
+    YamlFileCache cache = new YamlFileCache(first.length() + second.length());
+
+    cache.read(first, "value");
+    cache.read(second, "value");
+    // Touch the first file, so the second is the least recently used
+    cache.read(first, "value");
+    cache.read(third, "value");
+    assertEquals(2, cache.size());
+    assertTrue(cache.getCachedBytes() <= first.length() + second.length());
+
+    long misses = cache.getMisses();
+    cache.read(first, "value");
+    assertEquals(misses, cache.getMisses());
+    cache.read(second, "value");
+    assertEquals(misses + 1, cache.getMisses());
+
+    cache.read(big, "value");
+    cache.read(big, "value");
+    assertEquals(misses + 3, cache.getMisses());
+    assertEquals(2, cache.size());
+  }
+
+  /**
+   * Lowering the size limit evicts files straight away, and clearing forgets every file
+   *
+   * @since latest
+   */
+  @Test
+  void setMaxBytesAndClear() throws IOException {
+    YamlFileCache cache = new YamlFileCache(1024 * 1024);
+    File first = write("first.yml", "value: 1\n");
+    File second = write("second.yml", "value: 2\n");
+    cache.read(first, "value");
+    cache.read(second, "value");
+
+    cache.setMaxBytes(second.length());
+    assertEquals(1, cache.size());
+    assertEquals(second.length(), cache.getCachedBytes());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getCachedBytes());
+  }
+
+  /**
+   * Changing a list, map or section that was read doesn't change what the next read returns
+   *
+   * @since latest
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  void readsAreCopies() throws IOException {
+    YamlFileCache cache = new YamlFileCache(1024 * 1024);
+    File file = write("a.yml", "list:\n- a\n- b\nsection:\n  nested:\n    value: 1\n  items:\n  - x\n");
+
+    List<Object> list = (List<Object>) cache.read(file, "list");
+    list.add("c");
+    assertEquals(List.of("a", "b"), cache.read(file, "list"));
+
+    ConfigurationSection section = (ConfigurationSection) cache.read(file, "section");
+    section.set("nested.value", 2);
+    ((List<Object>) section.get("items")).add("y");
+    ConfigurationSection reread = (ConfigurationSection) cache.read(file, "section");
+    assertEquals(1, reread.getInt("nested.value"));
+    assertEquals(List.of("x"), reread.getList("items"));
+    assertTrue(reread.isConfigurationSection("nested"));
+
+    Map<String, Object> values = reread.getValues(true);
+    assertEquals(1, values.get("nested.value"));
+  }
+
+  /**
+   * Helper function to write a file in the test folder
+   *
+   * @param name The name of the file
+   * @param contents The contents of the file
+   * @return The file
+   * @throws IOException If the file couldn't be written
+   * @since latest
+   */
+  private File write(String name, String contents) throws IOException {
+    Path path = folder.resolve(name);
+    Files.writeString(path, contents, StandardCharsets.UTF_8);
+    return path.toFile();
+  }
+}
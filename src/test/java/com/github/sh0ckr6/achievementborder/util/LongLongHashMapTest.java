@@ -0,0 +1,173 @@
+package com.github.sh0ckr6.achievementborder.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link LongLongHashMap}
+ *
+ * @author sh0ckR6
+ * @since latest
+ */
+class LongLongHashMapTest {
+
+  /**
+   * Values can be read back, replaced and removed, and missing keys read as 0
+   *
+   * @since latest
+   */
+  @Test
+  void putGetRemove() {
+    LongLongHashMap map = new LongLongHashMap();
+    assertEquals(0, map.get(42));
+    assertFalse(map.containsKey(42));
+
+    assertEquals(0, map.put(42, 7));
+    assertEquals(7, map.put(42, 8));
+    assertEquals(8, map.get(42));
+    assertTrue(map.containsKey(42));
+    assertEquals(1, map.size());
+
+    assertEquals(8, map.remove(42));
+    assertEquals(0, map.remove(42));
+    assertFalse(map.containsKey(42));
+    assertTrue(map.isEmpty());
+  }
+
+  /**
+   * The zero key marks empty slots, so it has to work like any other key
+   *
+   * @since latest
+   */
+  @Test
+  void zeroKey() {
+    LongLongHashMap map = new LongLongHashMap();
+    assertFalse(map.containsKey(0));
+    map.put(0, 5);
+    map.put(1, 6);
+    assertTrue(map.containsKey(0));
+    assertEquals(5, map.get(0));
+    assertEquals(2, map.size());
+
+    assertEquals(5, map.remove(0));
+    assertFalse(map.containsKey(0));
+    assertEquals(6, map.get(1));
+    assertEquals(1, map.size());
+  }
+
+  /**
+   * Counts that drop to 0 are removed, so the map only holds non-zero counts
+   *
+   * @since latest
+   */
+  @Test
+  void addToRemovesZeroCounts() {
+    LongLongHashMap map = new LongLongHashMap();
+    assertEquals(2, map.addTo(9, 2));
+    assertEquals(1, map.addTo(9, -1));
+    assertEquals(0, map.addTo(9, -1));
+    assertFalse(map.containsKey(9));
+    assertTrue(map.isEmpty());
+  }
+
+  /**
+   * Every entry survives the table growing many times over
+   *
+   * @since latest
+   */
+  @Test
+  void growsWithoutLosingEntries() {
+    LongLongHashMap map = new LongLongHashMap(1);
+    for (long key = 1; key <= 10_000; key++) {
+      map.put(key << 32, key);
+    }
+    assertEquals(10_000, map.size());
+    for (long key = 1; key <= 10_000; key++) {
+      assertEquals(key, map.get(key << 32));
+    }
+  }
+
+  /**
+   * Random puts, additions and removals agree with a {@link HashMap}, which checks that removal keeps probe runs intact
+   *
+   * @since latest
+   */
+  @Test
+  void matchesHashMap() {
+    LongLongHashMap map = new LongLongHashMap();
+    Map<Long, Long> expected = new HashMap<>();
+    Random random = new Random(1234);
+    for (int i = 0; i < 200_000; i++) {
+      // A small key range, so the same keys are hit over and over and probe runs get long
+      long key = random.nextInt(512) - 256;
+      switch (random.nextInt(3)) {
+        case 0 -> {
+          long value = random.nextInt(100) + 1;
+          assertEquals((long) expected.getOrDefault(key, 0L), map.put(key, value));
+          expected.put(key, value);
+        }
+        case 1 -> {
+          assertEquals((long) expected.getOrDefault(key, 0L), map.remove(key));
+          expected.remove(key);
+        }
+        default -> {
+          long value = expected.getOrDefault(key, 0L) + 1;
+          assertEquals(value, map.addTo(key, 1));
+          expected.put(key, value);
+        }
+      }
+    }
+
+    assertEquals(expected.size(), map.size());
+    for (long key = -256; key < 256; key++) {
+      assertEquals(expected.containsKey(key), map.containsKey(key));
+      assertEquals((long) expected.getOrDefault(key, 0L), map.get(key));
+    }
+  }
+
+  /**
+   * {@link LongLongHashMap#forEach} visits every entry exactly once, including the zero key
+   *
+   * @since latest
+   */
+  @Test
+  void forEachVisitsEveryEntry() {
+    LongLongHashMap map = new LongLongHashMap();
+    Map<Long, Long> expected = new HashMap<>();
+    for (long key = -50; key <= 50; key++) {
+      map.put(key, key * 3);
+      expected.put(key, key * 3);
+    }
+
+    Map<Long, Long> visited = new HashMap<>();
+    map.forEach((key, value) -> assertNull(visited.put(key, value)));
+    assertEquals(expected, visited);
+  }
+
+  /**
+   * {@link LongLongHashMap#clear()} removes every entry and leaves the map usable
+   *
+   * @since latest
+   */
+  @Test
+  void clear() {
+    LongLongHashMap map = new LongLongHashMap();
+    map.put(0, 1);
+    map.put(5, 2);
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertFalse(map.containsKey(0));
+    assertFalse(map.containsKey(5));
+
+    map.put(5, 3);
+    assertEquals(3, map.get(5));
+  }
+}